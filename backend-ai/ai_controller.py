@@ -6,14 +6,20 @@ AI Controller for Document Processing
 FastAPI endpoints for AI-powered document processing integration.
 """
 
-from fastapi import FastAPI, HTTPException, UploadFile, File, Form
+from fastapi import FastAPI, HTTPException, UploadFile, File, Form, Request
 from fastapi.middleware.cors import CORSMiddleware
+from fastapi.responses import StreamingResponse
+from starlette.concurrency import run_in_threadpool
 from pydantic import BaseModel
 from typing import List, Optional
+import asyncio
+import io
 import os
 import tempfile
 from pathlib import Path
 
+import cbor2
+
 # Import our document manager
 from document_manager import DocumentManager
 from bson import ObjectId
@@ -57,6 +63,24 @@ class ProcessDocumentRequest(BaseModel):
     content: str
     title: Optional[str] = None
 
+# Batch wire format: CBOR sequences (RFC 8742) of these models in both directions.
+# Mirrors AIBatchProtocol on the Java side; keep the two in step.
+BATCH_MEDIA_TYPE = "application/cbor-seq"
+BATCH_PARALLELISM = int(os.getenv("AI_BATCH_PARALLELISM", "4"))
+
+class BatchItem(BaseModel):
+    id: str
+    content: str
+    title: Optional[str] = None
+
+class BatchResult(BaseModel):
+    id: str
+    summary: Optional[str] = None
+    tags: List[str] = []
+    language: Optional[str] = None
+    success: bool
+    message: str
+
 @app.post("/api/ai/process-text", response_model=DocumentResponse)
 async def process_text_document(request: ProcessDocumentRequest):
     """
@@ -148,6 +172,77 @@ async def process_file_document(
     except Exception as e:
         raise HTTPException(status_code=500, detail=f"Error processing file: {str(e)}")
 
+def _decode_batch(body: bytes) -> List[BatchItem]:
+    """Decode a CBOR sequence of batch items."""
+    stream = io.BytesIO(body)
+    decoder = cbor2.CBORDecoder(stream)
+    items = []
+    while stream.tell() < len(body):
+        items.append(BatchItem(**decoder.decode()))
+    return items
+
+def _process_batch_item(item: BatchItem) -> BatchResult:
+    """Process one batch item; failures are reported in the result, never raised."""
+    try:
+        doc_id = doc_manager.process_document(item.content)
+        if not doc_id:
+            return BatchResult(id=item.id, success=False, message="Failed to process document")
+        
+        saved_doc = doc_manager.collection.find_one({'_id': ObjectId(doc_id)})
+        if not saved_doc:
+            return BatchResult(id=item.id, success=False, message="Document not found after processing")
+        
+        return BatchResult(
+            id=item.id,
+            summary=saved_doc['summary'],
+            tags=saved_doc['tags'],
+            language=saved_doc.get('language', 'en'),
+            success=True,
+            message="Document processed successfully"
+        )
+    except Exception as e:
+        return BatchResult(id=item.id, success=False, message=f"Error processing document: {str(e)}")
+
+@app.post("/api/ai/process-batch")
+async def process_batch(request: Request):
+    """
+    Process many text documents in one exchange.
+    
+    The body is a CBOR sequence of BatchItem; the response streams one BatchResult per item
+    as soon as it is ready, in completion order, with at most AI_BATCH_PARALLELISM items
+    processed at a time.
+    """
+    if not doc_manager:
+        raise HTTPException(status_code=500, detail="AI service not available")
+    
+    content_type = request.headers.get("content-type", "").split(";")[0].strip()
+    if content_type != BATCH_MEDIA_TYPE:
+        raise HTTPException(status_code=415, detail=f"Expected {BATCH_MEDIA_TYPE}")
+    
+    try:
+        items = _decode_batch(await request.body())
+    except Exception as e:
+        raise HTTPException(status_code=400, detail=f"Malformed batch: {str(e)}")
+    
+    limit = asyncio.Semaphore(BATCH_PARALLELISM)
+    
+    async def run(item: BatchItem) -> BatchResult:
+        async with limit:
+            return await run_in_threadpool(_process_batch_item, item)
+    
+    async def results():
+        tasks = [asyncio.create_task(run(item)) for item in items]
+        try:
+            for finished in asyncio.as_completed(tasks):
+                result = await finished
+                yield cbor2.dumps(result.dict())
+        finally:
+            # Client went away or the stream ended; stop anything still queued
+            for task in tasks:
+                task.cancel()
+    
+    return StreamingResponse(results(), media_type=BATCH_MEDIA_TYPE)
+
 @app.get("/api/ai/health")
 async def health_check():
     """Health check endpoint."""
@@ -2,8 +2,10 @@ package com.knowledgehub;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class KnowledgeHubApplication {
     public static void main(String[] args) {
         SpringApplication.run(KnowledgeHubApplication.class, args);
@@ -0,0 +1,262 @@
+package com.knowledgehub.controller;
+
+import com.knowledgehub.dto.CacheStatsResponse;
+import com.knowledgehub.dto.DuplicateReportResponse;
+import com.knowledgehub.dto.ErrorResponse;
+import com.knowledgehub.dto.MessageResponse;
+import com.knowledgehub.dto.ReconcileResponse;
+import com.knowledgehub.dto.RequeueResponse;
+import com.knowledgehub.entity.DocumentEntity;
+import com.knowledgehub.entity.User;
+import com.knowledgehub.security.JwtUtil;
+import com.knowledgehub.service.AIResultCache;
+import com.knowledgehub.service.CommentService;
+import com.knowledgehub.service.DocumentCache;
+import com.knowledgehub.service.DocumentJsonCache;
+import com.knowledgehub.service.DocumentService;
+import com.knowledgehub.service.EnrichmentBackfillService;
+import com.knowledgehub.service.EnrichmentJobService;
+import com.knowledgehub.service.NearDuplicateService;
+import com.knowledgehub.service.SearchResultCache;
+import com.knowledgehub.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/maintenance")
+@CrossOrigin(origins = "*")
+public class AdminMaintenanceController {
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private DocumentCache documentCache;
+    
+    @Autowired
+    private AIResultCache aiResultCache;
+    
+    @Autowired
+    private DocumentJsonCache documentJsonCache;
+    
+    @Autowired
+    private SearchResultCache searchResultCache;
+    
+    @Autowired
+    private EnrichmentJobService enrichmentJobService;
+    
+    @Autowired
+    private EnrichmentBackfillService enrichmentBackfillService;
+    
+    @Autowired
+    private NearDuplicateService nearDuplicateService;
+    
+    @Autowired
+    private DocumentService documentService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private User getCurrentUser(HttpServletRequest request) {
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            String username = jwtUtil.extractUsername(token);
+            return userService.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+        }
+        throw new RuntimeException("No authentication token found");
+    }
+    
+    private ResponseEntity<?> accessDenied() {
+        return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
+    }
+    
+    @PostMapping("/comment-counts/reconcile")
+    public ResponseEntity<?> reconcileCommentCounts(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            int corrected = commentService.reconcileCommentCounts();
+            
+            return ResponseEntity.ok(new ReconcileResponse(corrected, "Comment counts reconciled successfully"));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/cache-stats")
+    public ResponseEntity<?> getCacheStats(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            CacheStatsResponse.SearchCache searchStats = new CacheStatsResponse.SearchCache(
+                    searchResultCache.getHits(),
+                    searchResultCache.getMisses(),
+                    searchResultCache.currentGeneration());
+            
+            return ResponseEntity.ok(new CacheStatsResponse(
+                    documentCache.getStats(),
+                    documentJsonCache.getStats(),
+                    searchStats,
+                    aiResultCache.getStats()));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/enrichment/stats")
+    public ResponseEntity<?> getEnrichmentStats(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            return ResponseEntity.ok(enrichmentJobService.getStats());
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/enrichment/dead-letters/requeue")
+    public ResponseEntity<?> requeueDeadLetters(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            long requeued = enrichmentJobService.requeueDeadLetters();
+            
+            return ResponseEntity.ok(new RequeueResponse(requeued, "Dead-lettered enrichment jobs requeued"));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/enrichment/backfill")
+    public ResponseEntity<?> startBackfill(
+            @RequestParam(value = "restart", defaultValue = "false") boolean restart,
+            HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            return ResponseEntity.ok(enrichmentBackfillService.start(restart));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/enrichment/backfill/pause")
+    public ResponseEntity<?> pauseBackfill(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            return ResponseEntity.ok(enrichmentBackfillService.pause());
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/enrichment/backfill")
+    public ResponseEntity<?> getBackfillStatus(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            return ResponseEntity.ok(enrichmentBackfillService.getStatus());
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/duplicates")
+    public ResponseEntity<?> getDuplicateReport(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            List<DuplicateReportResponse.Cluster> clusters = new ArrayList<>();
+            long totalDuplicateBytes = 0;
+            for (List<String> cluster : nearDuplicateService.findClusters()) {
+                List<DocumentEntity> documents = new ArrayList<>(documentService.findAllByIds(cluster));
+                if (documents.size() < 2) {
+                    continue;
+                }
+                documents.sort(Comparator.comparing(DocumentEntity::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+                List<NearDuplicateService.ClusterMember> similarities = nearDuplicateService.similarityToFirst(
+                        documents.stream().map(DocumentEntity::getId).toList());
+                
+                List<DuplicateReportResponse.Member> members = new ArrayList<>(documents.size());
+                long duplicateBytes = 0;
+                for (int i = 0; i < documents.size(); i++) {
+                    DocumentEntity document = documents.get(i);
+                    members.add(new DuplicateReportResponse.Member(document.getId(), document.getTitle(),
+                            document.getOwner() != null ? document.getOwner().getFullName() : null,
+                            document.getFileSize(), document.getCreatedAt(), similarities.get(i).similarityToFirst()));
+                    if (i > 0) {
+                        duplicateBytes += document.getFileSize();
+                    }
+                }
+                clusters.add(new DuplicateReportResponse.Cluster(members, duplicateBytes));
+                totalDuplicateBytes += duplicateBytes;
+            }
+            
+            return ResponseEntity.ok(new DuplicateReportResponse(nearDuplicateService.getStats(), totalDuplicateBytes, clusters));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/duplicates/index")
+    public ResponseEntity<?> indexExistingDocuments(HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            if (!currentUser.getRoles().contains("ADMIN")) {
+                return accessDenied();
+            }
+            
+            if (!nearDuplicateService.startIndexingExisting()) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("Near-duplicate indexing is already running"));
+            }
+            return ResponseEntity.ok(new MessageResponse("Near-duplicate indexing of existing documents started"));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.knowledgehub.controller;
 
+import com.knowledgehub.dto.ErrorResponse;
 import com.knowledgehub.dto.LoginRequest;
 import com.knowledgehub.dto.LoginResponse;
+import com.knowledgehub.dto.TokenValidationResponse;
 import com.knowledgehub.entity.User;
 import com.knowledgehub.security.JwtUtil;
 import com.knowledgehub.service.UserService;
@@ -10,8 +12,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/auth")
@@ -50,9 +50,7 @@ public class AuthController {
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -70,9 +68,7 @@ public class AuthController {
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -88,23 +84,14 @@ public class AuthController {
                 User user = userService.findByUsername(username)
                         .orElseThrow(() -> new RuntimeException("User not found"));
                 
-                Map<String, Object> response = new HashMap<>();
-                response.put("valid", true);
-                response.put("username", user.getUsername());
-                response.put("fullName", user.getFullName());
-                response.put("email", user.getEmail());
-                
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok(new TokenValidationResponse(
+                        true, user.getUsername(), user.getFullName(), user.getEmail()));
             } else {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Invalid token");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Invalid token"));
             }
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 }
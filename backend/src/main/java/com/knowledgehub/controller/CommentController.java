@@ -1,5 +1,8 @@
 package com.knowledgehub.controller;
 
+import com.knowledgehub.dto.CommentResponse;
+import com.knowledgehub.dto.ErrorResponse;
+import com.knowledgehub.dto.MessageResponse;
 import com.knowledgehub.entity.Comment;
 import com.knowledgehub.entity.DocumentEntity;
 import com.knowledgehub.entity.User;
@@ -15,7 +18,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -64,19 +66,10 @@ public class CommentController {
             
             Comment comment = commentService.addComment(content, currentUser, document);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", comment.getId());
-            response.put("content", comment.getContent());
-            response.put("authorName", comment.getAuthor().getFullName());
-            response.put("authorId", comment.getAuthor().getId());
-            response.put("createdAt", comment.getCreatedAt());
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(CommentResponse.of(comment));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -93,23 +86,10 @@ public class CommentController {
             Pageable pageable = PageRequest.of(page, size);
             Page<Comment> comments = commentService.getDocumentComments(document, pageable);
             
-            Page<Map<String, Object>> response = comments.map(comment -> {
-                Map<String, Object> commentData = new HashMap<>();
-                commentData.put("id", comment.getId());
-                commentData.put("content", comment.getContent());
-                commentData.put("authorName", comment.getAuthor().getFullName());
-                commentData.put("authorId", comment.getAuthor().getId());
-                commentData.put("createdAt", comment.getCreatedAt());
-                commentData.put("updatedAt", comment.getUpdatedAt());
-                return commentData;
-            });
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(comments.map(CommentResponse::of));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -129,19 +109,10 @@ public class CommentController {
             
             Comment comment = commentService.updateComment(commentId, content, currentUser);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", comment.getId());
-            response.put("content", comment.getContent());
-            response.put("authorName", comment.getAuthor().getFullName());
-            response.put("authorId", comment.getAuthor().getId());
-            response.put("updatedAt", comment.getUpdatedAt());
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(CommentResponse.of(comment));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -151,14 +122,10 @@ public class CommentController {
             User currentUser = getCurrentUser(request);
             commentService.deleteComment(commentId, currentUser);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Comment deleted successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MessageResponse("Comment deleted successfully"));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 }
@@ -1,14 +1,34 @@
 package com.knowledgehub.controller;
 
+import com.knowledgehub.dto.AIStatusResponse;
+import com.knowledgehub.dto.BulkUploadResponse;
+import com.knowledgehub.dto.CommentResponse;
+import com.knowledgehub.dto.DocumentBatchResponse;
+import com.knowledgehub.dto.DocumentDetailResponse;
 import com.knowledgehub.dto.DocumentDto;
+import com.knowledgehub.dto.DocumentFieldSelection;
+import com.knowledgehub.dto.ErrorResponse;
+import com.knowledgehub.dto.MessageResponse;
+import com.knowledgehub.dto.NearDuplicateResponse;
+import com.knowledgehub.dto.UploadResponse;
+import com.knowledgehub.dto.UserRatingResponse;
 import com.knowledgehub.entity.DocumentEntity;
+import com.knowledgehub.entity.Rating;
 import com.knowledgehub.entity.User;
 import com.knowledgehub.security.JwtUtil;
+import com.knowledgehub.service.BulkIngestService;
+import com.knowledgehub.service.CommentService;
+import com.knowledgehub.service.DocumentJsonCache;
 import com.knowledgehub.service.DocumentService;
+import com.knowledgehub.service.EnrichmentJobService;
+import com.knowledgehub.service.NearDuplicateService;
+import com.knowledgehub.service.RatingService;
 import com.knowledgehub.service.UserService;
 import com.knowledgehub.service.AIService;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,9 +38,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @RestController
@@ -40,6 +65,29 @@ public class DocumentController {
     @Autowired
     private AIService aiService;
     
+    @Autowired
+    private EnrichmentJobService enrichmentJobService;
+    
+    @Autowired
+    private NearDuplicateService nearDuplicateService;
+    
+    @Autowired
+    private BulkIngestService bulkIngestService;
+    
+    @Autowired
+    private CommentService commentService;
+    
+    @Autowired
+    private RatingService ratingService;
+    
+    @Autowired
+    private DocumentJsonCache documentJsonCache;
+    
+    @Value("${documents.batch.max-size:100}")
+    private int maxBatchSize;
+    
+    private final ExecutorService detailExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    
     private User getCurrentUser(HttpServletRequest request) {
         String token = request.getHeader("Authorization");
         if (token != null && token.startsWith("Bearer ")) {
@@ -51,6 +99,17 @@ public class DocumentController {
         throw new RuntimeException("No authentication token found");
     }
     
+    private Set<String> projectionOf(DocumentFieldSelection selection) {
+        return selection != null ? selection.getEntityFields() : null;
+    }
+    
+    private Page<?> toDtos(Page<DocumentEntity> documents, DocumentFieldSelection selection) {
+        if (selection == null) {
+            return documents.map(documentJsonCache::fragmentFor);
+        }
+        return documents.map(document -> selection.write(new DocumentDto(document)));
+    }
+    
     @PostMapping("/upload")
     public ResponseEntity<?> uploadDocument(
             @RequestParam("file") MultipartFile file,
@@ -65,45 +124,86 @@ public class DocumentController {
             User currentUser = getCurrentUser(request);
             DocumentEntity.Visibility vis = DocumentEntity.Visibility.valueOf(visibility.toUpperCase());
             
+            // Đảm bảo có description
             String finalDescription = description;
-            List<String> finalTags = tags;
+            if (finalDescription == null || finalDescription.trim().isEmpty()) {
+                finalDescription = DocumentService.placeholderDescription(currentUser);
+            }
             
-            // Tích hợp AI nếu được yêu cầu và AI service khả dụng
-            if (useAI && aiService.isAIServiceAvailable()) {
+            // AI chạy nền qua hàng đợi; upload trả về ngay, summary và tags được điền khi job hoàn tất
+            DocumentEntity document = documentService.uploadDocument(file, title, finalDescription, tags, vis, currentUser,
+                    useAI ? DocumentEntity.EnrichmentStatus.PENDING : DocumentEntity.EnrichmentStatus.NONE);
+            String enrichmentJobId = null;
+            if (useAI) {
                 try {
-                    AIService.AIProcessResult aiResult = aiService.processFile(file);
-                    if (aiResult.isSuccess()) {
-                        // Sử dụng kết quả AI nếu description hoặc tags chưa được cung cấp
-                        if (finalDescription == null || finalDescription.trim().isEmpty()) {
-                            finalDescription = aiResult.getSummary();
-                        }
-                        if (finalTags == null || finalTags.isEmpty()) {
-                            finalTags = aiResult.getTags();
-                        }
-                        
-                        System.out.println("AI processed document: " + title);
-                        System.out.println("AI Summary: " + aiResult.getSummary());
-                        System.out.println("AI Tags: " + aiResult.getTags());
-                    }
+                    enrichmentJobId = enrichmentJobService.enqueue(document.getId()).getId();
                 } catch (Exception e) {
-                    System.err.println("AI processing failed, using manual input: " + e.getMessage());
+                    // Không để tài liệu ở PENDING mà không có job; backfill chỉ nhận tài liệu chưa PENDING
+                    System.err.println("Failed to enqueue enrichment for document " + document.getId() + ": " + e.getMessage());
+                    resetEnrichmentStatus(document);
                 }
             }
             
-            // Đảm bảo có description
-            if (finalDescription == null || finalDescription.trim().isEmpty()) {
-                finalDescription = "Tài liệu được upload bởi " + currentUser.getFullName();
-            }
+            return ResponseEntity.ok(new UploadResponse(new DocumentDto(document), enrichmentJobId,
+                    nearDuplicatesOf(document, currentUser)));
             
-            DocumentEntity document = documentService.uploadDocument(file, title, finalDescription, finalTags, vis, currentUser);
-            DocumentDto dto = new DocumentDto(document);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    private void resetEnrichmentStatus(DocumentEntity document) {
+        try {
+            documentService.setEnrichmentStatus(document.getId(), DocumentEntity.EnrichmentStatus.NONE);
+            document.setEnrichmentStatus(DocumentEntity.EnrichmentStatus.NONE);
+        } catch (Exception e) {
+            System.err.println("Failed to reset enrichment status of document " + document.getId() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Imports every PDF, Word document and image in a ZIP archive sent as the raw request body.
+     * Titles come from the file names and all files share the given tags and visibility.
+     */
+    @PostMapping(value = "/bulk", consumes = {"application/zip", "application/x-zip-compressed", "application/octet-stream"})
+    public ResponseEntity<?> bulkUpload(
+            @RequestParam(value = "tags", required = false) List<String> tags,
+            @RequestParam(value = "visibility", defaultValue = "PRIVATE") String visibility,
+            @RequestParam(value = "useAI", defaultValue = "true") boolean useAI,
+            HttpServletRequest request) {
+        
+        try {
+            User currentUser = getCurrentUser(request);
+            DocumentEntity.Visibility vis = DocumentEntity.Visibility.valueOf(visibility.toUpperCase());
             
-            return ResponseEntity.ok(dto);
+            BulkUploadResponse response = bulkIngestService.ingest(request.getInputStream(), tags, vis, currentUser, useAI);
+            return ResponseEntity.ok(response);
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Signs the new document and lists the near-duplicates the uploader is allowed to see.
+     */
+    private List<NearDuplicateResponse> nearDuplicatesOf(DocumentEntity document, User currentUser) {
+        List<NearDuplicateService.Match> matches = nearDuplicateService.index(document);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Double> similarities = matches.stream()
+                .collect(Collectors.toMap(NearDuplicateService.Match::documentId, NearDuplicateService.Match::similarity));
+        try {
+            return documentService.findAllByIds(matches.stream().map(NearDuplicateService.Match::documentId).toList()).stream()
+                    .filter(existing -> existing.getVisibility() != DocumentEntity.Visibility.PRIVATE
+                            || existing.getOwner().getId().equals(currentUser.getId()))
+                    .map(existing -> NearDuplicateResponse.of(existing, similarities.get(existing.getId())))
+                    .toList();
+        } catch (Exception e) {
+            // The document is already stored; failing here would only invite a duplicate retry
+            System.err.println("Failed to load near-duplicates of document " + document.getId() + ": " + e.getMessage());
+            return List.of();
         }
     }
     
@@ -113,59 +213,56 @@ public class DocumentController {
             @RequestParam(value = "tags", required = false) List<String> tags,
             @RequestParam(value = "visibility", required = false) String visibility,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size) {
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "fields", required = false) String fields) {
         
         try {
             Pageable pageable = PageRequest.of(page, size);
             DocumentEntity.Visibility vis = visibility != null ? DocumentEntity.Visibility.valueOf(visibility.toUpperCase()) : null;
+            DocumentFieldSelection selection = DocumentFieldSelection.parse(fields);
             
-            Page<DocumentEntity> documents = documentService.searchDocuments(searchText, tags, vis, pageable);
-            Page<DocumentDto> dtos = documents.map(DocumentDto::new);
+            Page<DocumentEntity> documents = documentService.searchDocuments(searchText, tags, vis, pageable, projectionOf(selection));
             
-            return ResponseEntity.ok(dtos);
+            return ResponseEntity.ok(toDtos(documents, selection));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentDocuments(
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "5") int size) {
+            @RequestParam(value = "size", defaultValue = "5") int size,
+            @RequestParam(value = "fields", required = false) String fields) {
         
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<DocumentEntity> documents = documentService.getRecentDocuments(pageable);
-            Page<DocumentDto> dtos = documents.map(DocumentDto::new);
+            DocumentFieldSelection selection = DocumentFieldSelection.parse(fields);
+            Page<DocumentEntity> documents = documentService.getRecentDocuments(pageable, projectionOf(selection));
             
-            return ResponseEntity.ok(dtos);
+            return ResponseEntity.ok(toDtos(documents, selection));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
     @GetMapping("/popular")
     public ResponseEntity<?> getPopularDocuments(
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "5") int size) {
+            @RequestParam(value = "size", defaultValue = "5") int size,
+            @RequestParam(value = "fields", required = false) String fields) {
         
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<DocumentEntity> documents = documentService.getPopularDocuments(pageable);
-            Page<DocumentDto> dtos = documents.map(DocumentDto::new);
+            DocumentFieldSelection selection = DocumentFieldSelection.parse(fields);
+            Page<DocumentEntity> documents = documentService.getPopularDocuments(pageable, projectionOf(selection));
             
-            return ResponseEntity.ok(dtos);
+            return ResponseEntity.ok(toDtos(documents, selection));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -173,20 +270,52 @@ public class DocumentController {
     public ResponseEntity<?> getMyDocuments(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "fields", required = false) String fields,
             HttpServletRequest request) {
         
         try {
             User currentUser = getCurrentUser(request);
             Pageable pageable = PageRequest.of(page, size);
-            Page<DocumentEntity> documents = documentService.getUserDocuments(currentUser, pageable);
-            Page<DocumentDto> dtos = documents.map(DocumentDto::new);
+            DocumentFieldSelection selection = DocumentFieldSelection.parse(fields);
+            Page<DocumentEntity> documents = documentService.getUserDocuments(currentUser, pageable, projectionOf(selection));
+            
+            return ResponseEntity.ok(toDtos(documents, selection));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/batch")
+    public ResponseEntity<?> getDocumentsBatch(@RequestParam("ids") List<String> ids) {
+        return batchResponse(ids);
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<?> postDocumentsBatch(@RequestBody Map<String, List<String>> request) {
+        return batchResponse(request.get("ids"));
+    }
+    
+    private ResponseEntity<?> batchResponse(List<String> ids) {
+        try {
+            if (ids == null || ids.isEmpty()) {
+                throw new RuntimeException("At least one document id is required");
+            }
+            if (ids.size() > maxBatchSize) {
+                throw new RuntimeException("At most " + maxBatchSize + " documents can be requested at once");
+            }
+            
+            // No view count side effects here, unlike GET /documents/{id}
+            List<DocumentDto> documents = documentService.findAllByIds(ids).stream()
+                    .map(DocumentDto::new)
+                    .toList();
+            Set<String> foundIds = documents.stream().map(DocumentDto::getId).collect(Collectors.toSet());
             
-            return ResponseEntity.ok(dtos);
+            return ResponseEntity.ok(new DocumentBatchResponse(documents,
+                    ids.stream().filter(id -> !foundIds.contains(id)).distinct().toList()));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -203,9 +332,40 @@ public class DocumentController {
             return ResponseEntity.ok(dto);
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<?> getDocumentDetail(
+            @PathVariable String id,
+            @RequestParam(value = "commentsSize", defaultValue = "10") int commentsSize,
+            HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            DocumentEntity document = documentService.findById(id)
+                    .orElseThrow(() -> new RuntimeException("DocumentEntity not found"));
+            
+            // The document is loaded once and shared by the parts fetched in parallel
+            Future<Page<CommentResponse>> comments = detailExecutor.submit(() ->
+                    commentService.getDocumentComments(document, PageRequest.of(0, commentsSize))
+                            .map(CommentResponse::of));
+            Future<Optional<Rating>> userRating = detailExecutor.submit(() ->
+                    ratingService.getUserRating(currentUser, document));
+            Future<DocumentEntity> viewed = detailExecutor.submit(() -> documentService.incrementViewCount(id));
+            
+            DocumentDetailResponse response = new DocumentDetailResponse(
+                    new DocumentDto(document),
+                    comments.get(),
+                    new DocumentDetailResponse.RatingStats(document.getAverageRating(), document.getTotalRatings()),
+                    UserRatingResponse.of(userRating.get()));
+            viewed.get();
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            return ResponseEntity.badRequest().body(new ErrorResponse(cause.getMessage()));
         }
     }
     
@@ -228,9 +388,7 @@ public class DocumentController {
             return ResponseEntity.ok(dto);
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -240,14 +398,10 @@ public class DocumentController {
             User currentUser = getCurrentUser(request);
             documentService.deleteDocument(id, currentUser);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "DocumentEntity deleted successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MessageResponse("DocumentEntity deleted successfully"));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -281,9 +435,7 @@ public class DocumentController {
             return new ResponseEntity<>(fileContent, headers, org.springframework.http.HttpStatus.OK);
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -291,14 +443,16 @@ public class DocumentController {
     public ResponseEntity<?> getAIStatus() {
         try {
             boolean isAvailable = aiService.isAIServiceAvailable();
-            Map<String, Object> response = new HashMap<>();
-            response.put("available", isAvailable);
-            response.put("message", isAvailable ? "AI service is available" : "AI service is not available");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new AIStatusResponse(isAvailable,
+                    isAvailable ? "AI service is available" : "AI service is not available",
+                    aiService.getCircuitState().name()));
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
+    
+    @PreDestroy
+    public void shutdownDetailExecutor() {
+        detailExecutor.shutdownNow();
+    }
 }
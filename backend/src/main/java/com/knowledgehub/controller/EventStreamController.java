@@ -0,0 +1,74 @@
+package com.knowledgehub.controller;
+
+import com.knowledgehub.dto.ErrorResponse;
+import com.knowledgehub.dto.StreamTicketResponse;
+import com.knowledgehub.entity.EnrichmentJob;
+import com.knowledgehub.repository.EnrichmentJobRepository;
+import com.knowledgehub.security.StreamTicketService;
+import com.knowledgehub.service.ActivityBroadcaster;
+import com.knowledgehub.service.DocumentService;
+import com.knowledgehub.service.EnrichmentJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/events")
+@CrossOrigin(origins = "*")
+public class EventStreamController {
+    
+    @Autowired
+    private ActivityBroadcaster activityBroadcaster;
+    
+    @Autowired
+    private DocumentService documentService;
+    
+    @Autowired
+    private EnrichmentJobRepository enrichmentJobRepository;
+    
+    @Autowired
+    private EnrichmentJobService enrichmentJobService;
+    
+    @Autowired
+    private StreamTicketService streamTicketService;
+    
+    /**
+     * Issues a ticket for opening one stream; EventSource cannot send the Authorization header.
+     */
+    @PostMapping("/ticket")
+    public ResponseEntity<?> issueTicket(Authentication authentication) {
+        return ResponseEntity.ok(new StreamTicketResponse(
+                streamTicketService.issue(authentication.getName()), streamTicketService.getTtlMs()));
+    }
+    
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribeFeed() {
+        return ResponseEntity.ok(activityBroadcaster.subscribe(ActivityBroadcaster.FEED_TOPIC));
+    }
+    
+    @GetMapping(value = "/documents/{documentId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribeDocument(@PathVariable String documentId) {
+        if (documentService.findById(documentId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(new ErrorResponse("DocumentEntity not found"));
+        }
+        return ResponseEntity.ok(activityBroadcaster.subscribe(ActivityBroadcaster.documentTopic(documentId)));
+    }
+    
+    /**
+     * Streams "progress" events for an enrichment job; the latest stage is replayed on connect.
+     */
+    @GetMapping(value = "/enrichment/{jobId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribeEnrichment(@PathVariable String jobId) {
+        Optional<EnrichmentJob> job = enrichmentJobRepository.findById(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(new ErrorResponse("Enrichment job not found"));
+        }
+        activityBroadcaster.retainEnrichmentProgress(enrichmentJobService.currentProgress(job.get()));
+        return ResponseEntity.ok(activityBroadcaster.subscribe(ActivityBroadcaster.enrichmentTopic(jobId)));
+    }
+}
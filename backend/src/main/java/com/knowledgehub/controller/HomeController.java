@@ -1,21 +1,33 @@
 package com.knowledgehub.controller;
 
+import com.knowledgehub.dto.DashboardResponse;
 import com.knowledgehub.dto.DocumentDto;
+import com.knowledgehub.dto.ErrorResponse;
+import com.knowledgehub.dto.RecommendedResponse;
 import com.knowledgehub.entity.DocumentEntity;
 import com.knowledgehub.entity.User;
 import com.knowledgehub.security.JwtUtil;
+import com.knowledgehub.service.DashboardSnapshotService;
 import com.knowledgehub.service.DocumentService;
+import com.knowledgehub.service.RecommendationService;
 import com.knowledgehub.service.UserService;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/home")
@@ -25,12 +37,23 @@ public class HomeController {
     @Autowired
     private DocumentService documentService;
     
+    @Autowired
+    private DashboardSnapshotService dashboardSnapshotService;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
     @Autowired
     private UserService userService;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Value("${dashboard.deadline-ms:2000}")
+    private long dashboardDeadlineMs;
+    
+    private final ExecutorService dashboardExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    
     private User getCurrentUser(HttpServletRequest request) {
         String token = request.getHeader("Authorization");
         if (token != null && token.startsWith("Bearer ")) {
@@ -48,29 +71,67 @@ public class HomeController {
             User currentUser = getCurrentUser(request);
             Pageable pageable = PageRequest.of(0, 5);
             
-            // Get recent documents (all users)
-            Page<DocumentEntity> recentDocuments = documentService.getRecentDocuments(pageable);
-            Page<DocumentDto> recentDtos = recentDocuments.map(DocumentDto::new);
+            // Only the per-user section touches the database; the global sections come from the snapshot
+            Future<List<DocumentDto>> userDocuments = dashboardExecutor.submit(
+                    () -> documentService.getUserDocuments(currentUser, pageable).map(DocumentDto::new).getContent());
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dashboardDeadlineMs);
+            
+            DashboardSnapshotService.Snapshot snapshot = dashboardSnapshotService.getSnapshot();
+            List<String> unavailableSections = new ArrayList<>();
+            
+            List<DocumentDto> userSection = awaitSection("userDocuments", userDocuments, deadline, unavailableSections);
+            boolean partial = !unavailableSections.isEmpty();
             
-            // Get popular documents
-            Page<DocumentEntity> popularDocuments = documentService.getPopularDocuments(pageable);
-            Page<DocumentDto> popularDtos = popularDocuments.map(DocumentDto::new);
+            return ResponseEntity.ok(new DashboardResponse(
+                    snapshot.newestDocuments(),
+                    snapshot.popularDocuments(),
+                    userSection,
+                    partial,
+                    partial ? unavailableSections : null));
             
-            // Get user's recent documents
-            Page<DocumentEntity> userDocuments = documentService.getUserDocuments(currentUser, pageable);
-            Page<DocumentDto> userDtos = userDocuments.map(DocumentDto::new);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    private List<DocumentDto> awaitSection(String name, Future<List<DocumentDto>> section, long deadline,
+                                           List<String> unavailableSections) throws InterruptedException {
+        try {
+            return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            section.cancel(true);
+            System.err.println("Dashboard section timed out: " + name);
+        } catch (ExecutionException e) {
+            System.err.println("Dashboard section failed: " + name + " - " + e.getCause().getMessage());
+        }
+        unavailableSections.add(name);
+        return List.of();
+    }
+    
+    @GetMapping("/recommended")
+    public ResponseEntity<?> getRecommended(
+            @RequestParam(value = "size", defaultValue = "5") int size,
+            HttpServletRequest request) {
+        try {
+            User currentUser = getCurrentUser(request);
+            List<String> documentIds = recommendationService.recommend(currentUser.getId(), size * 2);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("newestDocuments", recentDtos.getContent());
-            response.put("popularDocuments", popularDtos.getContent());
-            response.put("userDocuments", userDtos.getContent());
+            List<DocumentDto> recommended = documentService.findAllByIds(documentIds).stream()
+                    .filter(document -> document.getVisibility() != DocumentEntity.Visibility.PRIVATE
+                            || (document.getOwner() != null && document.getOwner().getId().equals(currentUser.getId())))
+                    .limit(size)
+                    .map(DocumentDto::new)
+                    .toList();
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new RecommendedResponse(recommended));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
+    
+    @PreDestroy
+    public void shutdownDashboardExecutor() {
+        dashboardExecutor.shutdownNow();
+    }
 }
@@ -1,5 +1,10 @@
 package com.knowledgehub.controller;
 
+import com.knowledgehub.dto.DocumentRatingsResponse;
+import com.knowledgehub.dto.ErrorResponse;
+import com.knowledgehub.dto.MessageResponse;
+import com.knowledgehub.dto.RatingResponse;
+import com.knowledgehub.dto.UserRatingResponse;
 import com.knowledgehub.entity.DocumentEntity;
 import com.knowledgehub.entity.Rating;
 import com.knowledgehub.entity.User;
@@ -12,7 +17,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -63,24 +67,12 @@ public class RatingController {
             
             Rating rating = ratingService.addOrUpdateRating(score, currentUser, document);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", rating.getId());
-            response.put("score", rating.getScore());
-            response.put("userId", rating.getUser().getId());
-            response.put("documentId", rating.getDocument().getId());
-            response.put("createdAt", rating.getCreatedAt());
-            response.put("updatedAt", rating.getUpdatedAt());
-            
-            // Include updated document rating info
-            response.put("documentAverageRating", document.getAverageRating());
-            response.put("documentTotalRatings", document.getTotalRatings());
-            
-            return ResponseEntity.ok(response);
+            // Include updated document rating info, reloaded since the service writes it straight to the database
+            DocumentEntity updated = documentService.findById(documentId).orElse(document);
+            return ResponseEntity.ok(RatingResponse.of(rating, updated));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -96,22 +88,10 @@ public class RatingController {
             
             Optional<Rating> rating = ratingService.getUserRating(currentUser, document);
             
-            Map<String, Object> response = new HashMap<>();
-            if (rating.isPresent()) {
-                response.put("hasRating", true);
-                response.put("score", rating.get().getScore());
-                response.put("createdAt", rating.get().getCreatedAt());
-                response.put("updatedAt", rating.get().getUpdatedAt());
-            } else {
-                response.put("hasRating", false);
-            }
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(UserRatingResponse.of(rating));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -123,27 +103,13 @@ public class RatingController {
             
             List<Rating> ratings = ratingService.getDocumentRatings(document);
             
-            List<Map<String, Object>> response = ratings.stream().map(rating -> {
-                Map<String, Object> ratingData = new HashMap<>();
-                ratingData.put("id", rating.getId());
-                ratingData.put("score", rating.getScore());
-                ratingData.put("userName", rating.getUser().getFullName());
-                ratingData.put("userId", rating.getUser().getId());
-                ratingData.put("createdAt", rating.getCreatedAt());
-                return ratingData;
-            }).toList();
-            
-            Map<String, Object> result = new HashMap<>();
-            result.put("ratings", response);
-            result.put("averageRating", document.getAverageRating());
-            result.put("totalRatings", document.getTotalRatings());
-            
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(new DocumentRatingsResponse(
+                    ratings.stream().map(DocumentRatingsResponse.Entry::of).toList(),
+                    document.getAverageRating(),
+                    document.getTotalRatings()));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -153,14 +119,10 @@ public class RatingController {
             User currentUser = getCurrentUser(request);
             ratingService.deleteRating(ratingId, currentUser);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Rating deleted successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MessageResponse("Rating deleted successfully"));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 }
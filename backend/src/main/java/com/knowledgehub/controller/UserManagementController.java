@@ -1,6 +1,10 @@
 package com.knowledgehub.controller;
 
+import com.knowledgehub.dto.ErrorResponse;
+import com.knowledgehub.dto.MessageResponse;
+import com.knowledgehub.dto.UserBlockResponse;
 import com.knowledgehub.dto.UserDto;
+import com.knowledgehub.dto.UserPageResponse;
 import com.knowledgehub.entity.User;
 import com.knowledgehub.security.JwtUtil;
 import com.knowledgehub.service.UserService;
@@ -13,7 +17,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -54,9 +57,7 @@ public class UserManagementController {
             
             // Check if user is admin
             if (!currentUser.getRoles().contains("ADMIN")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Access denied. Admin role required.");
-                return ResponseEntity.status(403).body(error);
+                return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
             }
             
             Pageable pageable = PageRequest.of(page, size);
@@ -70,19 +71,10 @@ public class UserManagementController {
             
             Page<UserDto> userDtos = users.map(UserDto::new);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", userDtos.getContent());
-            response.put("totalElements", userDtos.getTotalElements());
-            response.put("totalPages", userDtos.getTotalPages());
-            response.put("size", userDtos.getSize());
-            response.put("number", userDtos.getNumber());
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(UserPageResponse.of(userDtos));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -94,24 +86,18 @@ public class UserManagementController {
             
             // Check if user is admin
             if (!currentUser.getRoles().contains("ADMIN")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Access denied. Admin role required.");
-                return ResponseEntity.status(403).body(error);
+                return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
             }
             
             Optional<User> user = userService.findById(id);
             if (user.isPresent()) {
                 return ResponseEntity.ok(new UserDto(user.get()));
             } else {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "User not found");
                 return ResponseEntity.notFound().build();
             }
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -123,9 +109,7 @@ public class UserManagementController {
             
             // Check if user is admin
             if (!currentUser.getRoles().contains("ADMIN")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Access denied. Admin role required.");
-                return ResponseEntity.status(403).body(error);
+                return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
             }
             
             String username = (String) userData.get("username");
@@ -135,35 +119,25 @@ public class UserManagementController {
             
             // Validate required fields
             if (username == null || username.trim().isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Username is required");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Username is required"));
             }
             
             if (email == null || email.trim().isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Email is required");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Email is required"));
             }
             
             if (password == null || password.trim().isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Password is required");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Password is required"));
             }
             
             // Check if username already exists
             if (userService.findByUsername(username).isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Username already exists");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Username already exists"));
             }
             
             // Check if email already exists
             if (userService.findByEmail(email).isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Email already exists");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Email already exists"));
             }
             
             // Create new user
@@ -179,9 +153,7 @@ public class UserManagementController {
             return ResponseEntity.ok(new UserDto(savedUser));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -193,15 +165,11 @@ public class UserManagementController {
             
             // Check if user is admin
             if (!currentUser.getRoles().contains("ADMIN")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Access denied. Admin role required.");
-                return ResponseEntity.status(403).body(error);
+                return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
             }
             
             Optional<User> userOpt = userService.findById(id);
             if (!userOpt.isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "User not found");
                 return ResponseEntity.notFound().build();
             }
             
@@ -214,9 +182,7 @@ public class UserManagementController {
                     // Check if email already exists for another user
                     Optional<User> existingUser = userService.findByEmail(email);
                     if (existingUser.isPresent() && !existingUser.get().getId().equals(id)) {
-                        Map<String, String> error = new HashMap<>();
-                        error.put("error", "Email already exists");
-                        return ResponseEntity.badRequest().body(error);
+                        return ResponseEntity.badRequest().body(new ErrorResponse("Email already exists"));
                     }
                     user.setEmail(email);
                 }
@@ -245,9 +211,7 @@ public class UserManagementController {
             return ResponseEntity.ok(new UserDto(updatedUser));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -259,37 +223,27 @@ public class UserManagementController {
             
             // Check if user is admin
             if (!currentUser.getRoles().contains("ADMIN")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Access denied. Admin role required.");
-                return ResponseEntity.status(403).body(error);
+                return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
             }
             
             Optional<User> userOpt = userService.findById(id);
             if (!userOpt.isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "User not found");
                 return ResponseEntity.notFound().build();
             }
             
             String newPassword = passwordData.get("password");
             if (newPassword == null || newPassword.trim().isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Password is required");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Password is required"));
             }
             
             User user = userOpt.get();
             user.setPassword(passwordEncoder.encode(newPassword));
             userService.save(user);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Password updated successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MessageResponse("Password updated successfully"));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -301,23 +255,17 @@ public class UserManagementController {
             
             // Check if user is admin
             if (!currentUser.getRoles().contains("ADMIN")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Access denied. Admin role required.");
-                return ResponseEntity.status(403).body(error);
+                return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
             }
             
             Optional<User> userOpt = userService.findById(id);
             if (!userOpt.isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "User not found");
                 return ResponseEntity.notFound().build();
             }
             
             Boolean block = blockData.get("block");
             if (block == null) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Block status is required");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Block status is required"));
             }
             
             User user = userOpt.get();
@@ -326,15 +274,12 @@ public class UserManagementController {
             
             User updatedUser = userService.save(user);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", block ? "User blocked successfully" : "User unblocked successfully");
-            response.put("user", new UserDto(updatedUser));
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new UserBlockResponse(
+                    block ? "User blocked successfully" : "User unblocked successfully",
+                    new UserDto(updatedUser)));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
@@ -346,35 +291,25 @@ public class UserManagementController {
             
             // Check if user is admin
             if (!currentUser.getRoles().contains("ADMIN")) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Access denied. Admin role required.");
-                return ResponseEntity.status(403).body(error);
+                return ResponseEntity.status(403).body(new ErrorResponse("Access denied. Admin role required."));
             }
             
             // Prevent admin from deleting themselves
             if (currentUser.getId().equals(id)) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Cannot delete your own account");
-                return ResponseEntity.badRequest().body(error);
+                return ResponseEntity.badRequest().body(new ErrorResponse("Cannot delete your own account"));
             }
             
             Optional<User> userOpt = userService.findById(id);
             if (!userOpt.isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "User not found");
                 return ResponseEntity.notFound().build();
             }
             
             userService.deleteById(id);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "User deleted successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MessageResponse("User deleted successfully"));
             
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 }
@@ -0,0 +1,4 @@
+package com.knowledgehub.dto;
+
+public record AIStatusResponse(boolean available, String message, String circuitState) {
+}
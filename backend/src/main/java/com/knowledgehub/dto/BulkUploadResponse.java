@@ -0,0 +1,37 @@
+package com.knowledgehub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk archive upload, one entry per file in archive order. {@code truncated} is
+ * set when the archive hit an import limit or turned out unreadable part-way, with the reason in
+ * {@code message}; files after that point are not listed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkUploadResponse(int totalFiles, int stored, int rejected, int failed,
+                                 boolean truncated, String message, boolean enrichmentQueued,
+                                 List<FileResult> files) {
+
+    public enum Status {
+        STORED, REJECTED, FAILED
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record FileResult(String path, Status status, String documentId, String error,
+                             List<String> nearDuplicateIds) {
+
+        public static FileResult stored(String path, String documentId, List<String> nearDuplicateIds) {
+            return new FileResult(path, Status.STORED, documentId, null, nearDuplicateIds);
+        }
+
+        public static FileResult rejected(String path, String error) {
+            return new FileResult(path, Status.REJECTED, null, error, null);
+        }
+
+        public static FileResult failed(String path, String error) {
+            return new FileResult(path, Status.FAILED, null, error, null);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.knowledgehub.dto;
+
+import java.util.Map;
+
+public record CacheStatsResponse(Map<String, Object> documentCache, Map<String, Object> documentJsonCache,
+                                 SearchCache searchCache, Map<String, Object> aiResultCache) {
+    
+    public record SearchCache(long hits, long misses, long generation) {
+    }
+}
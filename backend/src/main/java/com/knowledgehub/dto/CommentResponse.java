@@ -0,0 +1,17 @@
+package com.knowledgehub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.knowledgehub.entity.Comment;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CommentResponse(String id, String content, String authorName, String authorId,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+    
+    public static CommentResponse of(Comment comment) {
+        return new CommentResponse(comment.getId(), comment.getContent(),
+                comment.getAuthor().getFullName(), comment.getAuthor().getId(),
+                comment.getCreatedAt(), comment.getUpdatedAt());
+    }
+}
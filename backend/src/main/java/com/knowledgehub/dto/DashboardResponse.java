@@ -0,0 +1,15 @@
+package com.knowledgehub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The home dashboard. The global sections are pre-serialized snapshot fragments;
+ * {@code unavailableSections} is only present when {@code partial} is true.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DashboardResponse(JsonFragment newestDocuments, JsonFragment popularDocuments,
+                                List<DocumentDto> userDocuments, boolean partial,
+                                List<String> unavailableSections) {
+}
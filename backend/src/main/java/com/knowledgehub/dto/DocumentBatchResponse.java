@@ -0,0 +1,6 @@
+package com.knowledgehub.dto;
+
+import java.util.List;
+
+public record DocumentBatchResponse(List<DocumentDto> documents, List<String> missingIds) {
+}
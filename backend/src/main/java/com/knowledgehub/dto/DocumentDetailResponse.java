@@ -0,0 +1,14 @@
+package com.knowledgehub.dto;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * Everything the document page needs in one response: the document, the first page of comments,
+ * its rating aggregates and the current user's own rating.
+ */
+public record DocumentDetailResponse(DocumentDto document, Page<CommentResponse> comments,
+                                     RatingStats ratingStats, UserRatingResponse userRating) {
+    
+    public record RatingStats(double averageRating, int totalRatings) {
+    }
+}
@@ -21,6 +21,8 @@ public class DocumentDto {
     private int viewCount;
     private double averageRating;
     private int totalRatings;
+    private int commentCount;
+    private DocumentEntity.EnrichmentStatus enrichmentStatus;
 
     public DocumentDto() {}
 
@@ -41,6 +43,8 @@ public class DocumentDto {
         this.viewCount = document.getViewCount();
         this.averageRating = document.getAverageRating();
         this.totalRatings = document.getTotalRatings();
+        this.commentCount = document.getCommentCount();
+        this.enrichmentStatus = document.getEnrichmentStatus();
     }
 
     // Getters and Setters
@@ -171,4 +175,20 @@ public class DocumentDto {
     public void setTotalRatings(int totalRatings) {
         this.totalRatings = totalRatings;
     }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public DocumentEntity.EnrichmentStatus getEnrichmentStatus() {
+        return enrichmentStatus;
+    }
+
+    public void setEnrichmentStatus(DocumentEntity.EnrichmentStatus enrichmentStatus) {
+        this.enrichmentStatus = enrichmentStatus;
+    }
 }
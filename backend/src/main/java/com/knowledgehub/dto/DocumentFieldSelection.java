@@ -0,0 +1,99 @@
+package com.knowledgehub.dto;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A client-requested subset of {@link DocumentDto} fields (the {@code fields=} parameter).
+ * Knows which entity fields the selection needs, for Mongo projections, and writes a DTO
+ * out as a map holding only the selected fields.
+ */
+public class DocumentFieldSelection {
+    
+    private static final Map<String, String> ENTITY_FIELDS = Map.ofEntries(
+            Map.entry("id", "_id"),
+            Map.entry("title", "title"),
+            Map.entry("description", "description"),
+            Map.entry("fileName", "fileName"),
+            Map.entry("fileType", "fileType"),
+            Map.entry("fileSize", "fileSize"),
+            Map.entry("tags", "tags"),
+            Map.entry("visibility", "visibility"),
+            Map.entry("summary", "summary"),
+            Map.entry("ownerName", "owner"),
+            Map.entry("ownerId", "owner"),
+            Map.entry("createdAt", "createdAt"),
+            Map.entry("updatedAt", "updatedAt"),
+            Map.entry("viewCount", "viewCount"),
+            Map.entry("averageRating", "averageRating"),
+            Map.entry("totalRatings", "totalRatings"),
+            Map.entry("commentCount", "commentCount"),
+            Map.entry("enrichmentStatus", "enrichmentStatus"));
+    
+    private final Set<String> fields;
+    
+    private DocumentFieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+    
+    /**
+     * Returns null when no selection was requested, meaning the full DTO.
+     */
+    public static DocumentFieldSelection parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : Arrays.stream(fields.split(",")).map(String::trim).filter(f -> !f.isEmpty()).toList()) {
+            if (!ENTITY_FIELDS.containsKey(field)) {
+                throw new RuntimeException("Unknown document field: " + field);
+            }
+            selected.add(field);
+        }
+        return new DocumentFieldSelection(selected);
+    }
+    
+    public Set<String> getEntityFields() {
+        Set<String> entityFields = new LinkedHashSet<>();
+        for (String field : fields) {
+            entityFields.add(ENTITY_FIELDS.get(field));
+        }
+        return entityFields;
+    }
+    
+    public Map<String, Object> write(DocumentDto dto) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String field : fields) {
+            result.put(field, valueOf(dto, field));
+        }
+        return result;
+    }
+    
+    private Object valueOf(DocumentDto dto, String field) {
+        return switch (field) {
+            case "id" -> dto.getId();
+            case "title" -> dto.getTitle();
+            case "description" -> dto.getDescription();
+            case "fileName" -> dto.getFileName();
+            case "fileType" -> dto.getFileType();
+            case "fileSize" -> dto.getFileSize();
+            case "tags" -> dto.getTags();
+            case "visibility" -> dto.getVisibility();
+            case "summary" -> dto.getSummary();
+            case "ownerName" -> dto.getOwnerName();
+            case "ownerId" -> dto.getOwnerId();
+            case "createdAt" -> dto.getCreatedAt();
+            case "updatedAt" -> dto.getUpdatedAt();
+            case "viewCount" -> dto.getViewCount();
+            case "averageRating" -> dto.getAverageRating();
+            case "totalRatings" -> dto.getTotalRatings();
+            case "commentCount" -> dto.getCommentCount();
+            case "enrichmentStatus" -> dto.getEnrichmentStatus();
+            default -> throw new IllegalStateException("Unhandled document field: " + field);
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.knowledgehub.dto;
+
+import com.knowledgehub.entity.Rating;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DocumentRatingsResponse(List<Entry> ratings, double averageRating, int totalRatings) {
+    
+    public record Entry(String id, int score, String userName, String userId, LocalDateTime createdAt) {
+        
+        public static Entry of(Rating rating) {
+            return new Entry(rating.getId(), rating.getScore(), rating.getUser().getFullName(),
+                    rating.getUser().getId(), rating.getCreatedAt());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.knowledgehub.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Near-duplicate clusters among indexed documents. In each cluster the oldest document comes
+ * first and the others carry their similarity to it; duplicateBytes is what all but the oldest
+ * take up on disk.
+ */
+public record DuplicateReportResponse(Map<String, Object> index, long totalDuplicateBytes, List<Cluster> clusters) {
+    
+    public record Cluster(List<Member> documents, long duplicateBytes) {
+    }
+    
+    public record Member(String documentId, String title, String ownerName, long fileSize,
+                         LocalDateTime createdAt, double similarity) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.knowledgehub.dto;
+
+public record ErrorResponse(String error) {
+}
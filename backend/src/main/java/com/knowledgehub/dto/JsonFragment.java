@@ -0,0 +1,160 @@
+package com.knowledgehub.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An already-encoded JSON value held in a (typically direct) byte buffer. When serialized,
+ * Jackson splices the bytes into its output buffer as a raw value, so the bytes are copied
+ * straight from off-heap memory without being re-encoded. Binary generators (CBOR, Smile) cannot
+ * take raw JSON, so for them the fragment is parsed and written as a tree instead.
+ */
+public class JsonFragment implements JsonSerializable, SerializableString {
+    
+    private static final ObjectMapper JSON = new ObjectMapper();
+    
+    private final ByteBuffer utf8;
+    
+    public static JsonFragment of(byte[] json) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(json.length);
+        buffer.put(json).flip();
+        return new JsonFragment(buffer);
+    }
+    
+    public JsonFragment(ByteBuffer utf8) {
+        this.utf8 = utf8.asReadOnlyBuffer();
+    }
+    
+    public int byteLength() {
+        return utf8.remaining();
+    }
+    
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (gen instanceof JsonGeneratorImpl) {
+            gen.writeRawValue(this);
+        } else {
+            JSON.readTree(asUnquotedUTF8()).serialize(gen, serializers);
+        }
+    }
+    
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+    
+    @Override
+    public String getValue() {
+        return new String(asUnquotedUTF8(), StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+    
+    @Override
+    public char[] asQuotedChars() {
+        return JsonStringEncoder.getInstance().quoteAsString(getValue());
+    }
+    
+    @Override
+    public byte[] asUnquotedUTF8() {
+        byte[] bytes = new byte[utf8.remaining()];
+        utf8.duplicate().get(bytes);
+        return bytes;
+    }
+    
+    @Override
+    public byte[] asQuotedUTF8() {
+        return JsonStringEncoder.getInstance().quoteAsUTF8(getValue());
+    }
+    
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+        return copyInto(asQuotedUTF8(), buffer, offset);
+    }
+    
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+        char[] quoted = asQuotedChars();
+        if (offset + quoted.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(quoted, 0, buffer, offset, quoted.length);
+        return quoted.length;
+    }
+    
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        int length = utf8.remaining();
+        if (offset + length > buffer.length) {
+            return -1;
+        }
+        utf8.duplicate().get(buffer, offset, length);
+        return length;
+    }
+    
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        String value = getValue();
+        if (offset + value.length() > buffer.length) {
+            return -1;
+        }
+        value.getChars(0, value.length(), buffer, offset);
+        return value.length();
+    }
+    
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        byte[] quoted = asQuotedUTF8();
+        out.write(quoted);
+        return quoted.length;
+    }
+    
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        byte[] bytes = asUnquotedUTF8();
+        out.write(bytes);
+        return bytes.length;
+    }
+    
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+        byte[] quoted = asQuotedUTF8();
+        if (quoted.length > buffer.remaining()) {
+            return -1;
+        }
+        buffer.put(quoted);
+        return quoted.length;
+    }
+    
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) throws IOException {
+        int length = utf8.remaining();
+        if (length > buffer.remaining()) {
+            return -1;
+        }
+        buffer.put(utf8.duplicate());
+        return length;
+    }
+    
+    private static int copyInto(byte[] source, byte[] buffer, int offset) {
+        if (offset + source.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(source, 0, buffer, offset, source.length);
+        return source.length;
+    }
+}
@@ -0,0 +1,15 @@
+package com.knowledgehub.dto;
+
+import com.knowledgehub.entity.DocumentEntity;
+
+/**
+ * An existing document the upload closely resembles; similarity is the estimated Jaccard
+ * similarity of their text, between 0 and 1.
+ */
+public record NearDuplicateResponse(String documentId, String title, String ownerName, double similarity) {
+    
+    public static NearDuplicateResponse of(DocumentEntity document, double similarity) {
+        return new NearDuplicateResponse(document.getId(), document.getTitle(),
+                document.getOwner() != null ? document.getOwner().getFullName() : null, similarity);
+    }
+}
@@ -0,0 +1,20 @@
+package com.knowledgehub.dto;
+
+import com.knowledgehub.entity.DocumentEntity;
+import com.knowledgehub.entity.Rating;
+
+import java.time.LocalDateTime;
+
+/**
+ * A rating as returned after it was added or changed, with the document's updated aggregates.
+ */
+public record RatingResponse(String id, int score, String userId, String documentId,
+                             LocalDateTime createdAt, LocalDateTime updatedAt,
+                             double documentAverageRating, int documentTotalRatings) {
+    
+    public static RatingResponse of(Rating rating, DocumentEntity document) {
+        return new RatingResponse(rating.getId(), rating.getScore(), rating.getUser().getId(),
+                rating.getDocument().getId(), rating.getCreatedAt(), rating.getUpdatedAt(),
+                document.getAverageRating(), document.getTotalRatings());
+    }
+}
@@ -0,0 +1,6 @@
+package com.knowledgehub.dto;
+
+import java.util.List;
+
+public record RecommendedResponse(List<DocumentDto> recommendedDocuments) {
+}
@@ -0,0 +1,7 @@
+package com.knowledgehub.dto;
+
+/**
+ * A single-use ticket for opening one event stream, passed as {@code ?ticket=}.
+ */
+public record StreamTicketResponse(String ticket, long expiresInMs) {
+}
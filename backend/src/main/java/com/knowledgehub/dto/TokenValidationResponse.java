@@ -0,0 +1,4 @@
+package com.knowledgehub.dto;
+
+public record TokenValidationResponse(boolean valid, String username, String fullName, String email) {
+}
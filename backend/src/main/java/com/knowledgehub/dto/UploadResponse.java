@@ -0,0 +1,15 @@
+package com.knowledgehub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+/**
+ * The uploaded document, plus the enrichment job to follow on {@code /events/enrichment/{jobId}}
+ * when AI processing was requested, and any existing documents it looks like a near-copy of.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UploadResponse(@JsonUnwrapped DocumentDto document, String enrichmentJobId,
+                             List<NearDuplicateResponse> nearDuplicates) {
+}
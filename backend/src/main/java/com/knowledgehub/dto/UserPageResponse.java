@@ -0,0 +1,13 @@
+package com.knowledgehub.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+public record UserPageResponse(List<UserDto> content, long totalElements, int totalPages, int size, int number) {
+    
+    public static UserPageResponse of(Page<UserDto> page) {
+        return new UserPageResponse(page.getContent(), page.getTotalElements(), page.getTotalPages(),
+                page.getSize(), page.getNumber());
+    }
+}
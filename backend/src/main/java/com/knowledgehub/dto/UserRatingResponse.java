@@ -0,0 +1,20 @@
+package com.knowledgehub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.knowledgehub.entity.Rating;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * The current user's rating of a document; only {@code hasRating} is present when there is none.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserRatingResponse(boolean hasRating, Integer score, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    
+    public static UserRatingResponse of(Optional<Rating> rating) {
+        return rating
+                .map(r -> new UserRatingResponse(true, r.getScore(), r.getCreatedAt(), r.getUpdatedAt()))
+                .orElseGet(() -> new UserRatingResponse(false, null, null, null));
+    }
+}
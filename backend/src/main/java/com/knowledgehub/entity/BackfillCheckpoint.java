@@ -0,0 +1,92 @@
+package com.knowledgehub.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Document(collection = "backfill_checkpoints")
+public class BackfillCheckpoint {
+    @Id
+    private String id;
+    
+    private State state;
+    private String lastDocumentId;
+    private long enqueued;
+    private String lastError;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+
+    public enum State {
+        RUNNING, PAUSED, COMPLETED
+    }
+
+    // Constructors
+    public BackfillCheckpoint() {
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+        this.state = State.PAUSED;
+    }
+
+    public BackfillCheckpoint(String id) {
+        this();
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public String getLastDocumentId() {
+        return lastDocumentId;
+    }
+
+    public void setLastDocumentId(String lastDocumentId) {
+        this.lastDocumentId = lastDocumentId;
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public void setEnqueued(long enqueued) {
+        this.enqueued = enqueued;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "documents")
@@ -36,11 +37,17 @@ public class DocumentEntity {
     private int viewCount;
     private double averageRating;
     private int totalRatings;
+    private int commentCount;
+    private EnrichmentStatus enrichmentStatus;
 
     public enum Visibility {
         PRIVATE, GROUP, PUBLIC
     }
 
+    public enum EnrichmentStatus {
+        NONE, PENDING, COMPLETED, FAILED
+    }
+
     // Constructors
     public DocumentEntity() {
         this.createdAt = LocalDateTime.now();
@@ -48,7 +55,9 @@ public class DocumentEntity {
         this.viewCount = 0;
         this.averageRating = 0.0;
         this.totalRatings = 0;
+        this.commentCount = 0;
         this.visibility = Visibility.PRIVATE;
+        this.enrichmentStatus = EnrichmentStatus.NONE;
     }
 
     public DocumentEntity(String title, String description, String fileName, User owner) {
@@ -59,6 +68,30 @@ public class DocumentEntity {
         this.owner = owner;
     }
 
+    /**
+     * Copies every field, with its own tag list. The owner is shared.
+     */
+    public DocumentEntity(DocumentEntity other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.fileName = other.fileName;
+        this.filePath = other.filePath;
+        this.fileType = other.fileType;
+        this.fileSize = other.fileSize;
+        this.tags = other.tags != null ? new ArrayList<>(other.tags) : null;
+        this.visibility = other.visibility;
+        this.summary = other.summary;
+        this.owner = other.owner;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.viewCount = other.viewCount;
+        this.averageRating = other.averageRating;
+        this.totalRatings = other.totalRatings;
+        this.commentCount = other.commentCount;
+        this.enrichmentStatus = other.enrichmentStatus;
+    }
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -187,4 +220,20 @@ public class DocumentEntity {
     public void setTotalRatings(int totalRatings) {
         this.totalRatings = totalRatings;
     }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public EnrichmentStatus getEnrichmentStatus() {
+        return enrichmentStatus;
+    }
+
+    public void setEnrichmentStatus(EnrichmentStatus enrichmentStatus) {
+        this.enrichmentStatus = enrichmentStatus;
+    }
 }
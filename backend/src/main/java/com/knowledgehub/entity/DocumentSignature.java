@@ -0,0 +1,80 @@
+package com.knowledgehub.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * MinHash signature of a document's extracted text, keyed by document ID. {@code bands} holds one
+ * LSH bucket key per band; the multikey index on it is what makes near-duplicate lookup cheap.
+ */
+@Document(collection = "document_signatures")
+public class DocumentSignature {
+    @Id
+    private String documentId;
+    
+    private List<Long> minhash;
+    
+    @Indexed
+    private List<Long> bands;
+    
+    private int version;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public DocumentSignature() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public DocumentSignature(String documentId, List<Long> minhash, List<Long> bands, int version) {
+        this();
+        this.documentId = documentId;
+        this.minhash = minhash;
+        this.bands = bands;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public List<Long> getMinhash() {
+        return minhash;
+    }
+
+    public void setMinhash(List<Long> minhash) {
+        this.minhash = minhash;
+    }
+
+    public List<Long> getBands() {
+        return bands;
+    }
+
+    public void setBands(List<Long> bands) {
+        this.bands = bands;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
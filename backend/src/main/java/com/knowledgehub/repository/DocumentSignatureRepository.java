@@ -0,0 +1,9 @@
+package com.knowledgehub.repository;
+
+import com.knowledgehub.entity.DocumentSignature;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DocumentSignatureRepository extends MongoRepository<DocumentSignature, String> {
+}
@@ -0,0 +1,13 @@
+package com.knowledgehub.repository;
+
+import com.knowledgehub.entity.EnrichmentJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface EnrichmentJobRepository extends MongoRepository<EnrichmentJob, String> {
+    long countByStatus(EnrichmentJob.Status status);
+    long countBySourceAndStatusIn(EnrichmentJob.Source source, Collection<EnrichmentJob.Status> statuses);
+}
@@ -0,0 +1,77 @@
+package com.knowledgehub.security;
+
+import com.knowledgehub.service.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds expensive document requests (uploads, searches, downloads) with 503 once their
+ * group's adaptive concurrency limit is reached, so they cannot exhaust the request threads
+ * that cheap endpoints also depend on.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private final AdaptiveConcurrencyLimiter uploadLimiter;
+    private final AdaptiveConcurrencyLimiter searchLimiter;
+    private final AdaptiveConcurrencyLimiter downloadLimiter;
+    
+    public ConcurrencyLimitFilter(@Value("${concurrency-limit.upload.max:20}") int uploadMax,
+                                  @Value("${concurrency-limit.search.max:100}") int searchMax,
+                                  @Value("${concurrency-limit.download.max:50}") int downloadMax) {
+        this.uploadLimiter = new AdaptiveConcurrencyLimiter("upload", Math.min(10, uploadMax), 2, uploadMax);
+        this.searchLimiter = new AdaptiveConcurrencyLimiter("search", Math.min(20, searchMax), 4, searchMax);
+        this.downloadLimiter = new AdaptiveConcurrencyLimiter("download", Math.min(20, downloadMax), 4, downloadMax);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server is busy. Please try again shortly.\"}");
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+    
+    private AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getServletPath();
+        if ("POST".equals(method) && path.equals("/documents/upload")) {
+            return uploadLimiter;
+        }
+        if ("GET".equals(method) && path.equals("/documents/search")) {
+            return searchLimiter;
+        }
+        if ("GET".equals(method) && path.startsWith("/documents/") && path.endsWith("/download")) {
+            return downloadLimiter;
+        }
+        return null;
+    }
+}
@@ -24,6 +24,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private StreamTicketService streamTicketService;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
@@ -32,9 +35,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         String username = null;
         String jwt = null;
+        boolean ticketed = false;
         
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
+        } else if ("GET".equals(request.getMethod()) && request.getServletPath().startsWith("/events/")
+                && request.getParameter("ticket") != null) {
+            // EventSource cannot set headers, so event streams authenticate with a one-time ticket instead
+            username = streamTicketService.redeem(request.getParameter("ticket"));
+            ticketed = username != null;
+        }
+        
+        if (jwt != null) {
             try {
                 username = jwtUtil.extractUsername(jwt);
             } catch (Exception e) {
@@ -51,7 +63,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             .build())
                     .orElse(null);
             
-            if (userDetails != null && jwtUtil.validateToken(jwt, username)) {
+            if (userDetails != null && (ticketed || jwtUtil.validateToken(jwt, username))) {
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,63 @@
+package com.knowledgehub.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private RateLimiter rateLimiter;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        RateLimiter.EndpointClass endpointClass = classify(request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        if (endpointClass != null && authentication != null) {
+            long waitNanos = rateLimiter.tryAcquire(authentication.getName(), endpointClass);
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+                return;
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    private RateLimiter.EndpointClass classify(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getServletPath();
+        if (path.equals("/documents/upload") || path.equals("/documents/bulk")) {
+            return RateLimiter.EndpointClass.UPLOAD;
+        }
+        if (path.startsWith("/comments/")) {
+            return RateLimiter.EndpointClass.COMMENT;
+        }
+        if (path.startsWith("/ratings/")) {
+            return RateLimiter.EndpointClass.RATING;
+        }
+        return null;
+    }
+}
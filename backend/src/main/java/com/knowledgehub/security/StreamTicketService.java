@@ -0,0 +1,57 @@
+package com.knowledgehub.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived, single-use tickets for opening event streams.
+ *
+ * EventSource cannot send an Authorization header, so a stream has to authenticate through its
+ * URL, and URLs end up in access logs, proxy logs and browser history. Putting the bearer JWT
+ * there would leak a day-long credential. A ticket is instead issued to an already
+ * authenticated request, works once, only on {@code /events/**}, and only for a few seconds.
+ */
+@Component
+public class StreamTicketService {
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    @Value("${events.ticket-ttl-ms:30000}")
+    private long ttlMs;
+
+    public String issue(String username) {
+        long now = System.currentTimeMillis();
+        // Unredeemed tickets are dropped here rather than on a schedule; there are only ever a few
+        tickets.values().removeIf(ticket -> ticket.expiresAt() < now);
+
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(username, now + ttlMs));
+        return ticket;
+    }
+
+    /**
+     * Consumes the ticket and returns the username it was issued to, or null if it is unknown,
+     * already used or expired.
+     */
+    public String redeem(String ticket) {
+        Ticket redeemed = tickets.remove(ticket);
+        if (redeemed == null || redeemed.expiresAt() < System.currentTimeMillis()) {
+            return null;
+        }
+        return redeemed.username();
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    private record Ticket(String username, long expiresAt) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.knowledgehub.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Wire format of {@code POST /api/ai/process-batch} on the Python AI service.
+ *
+ * Both directions are CBOR sequences (RFC 8742): back-to-back CBOR maps with no framing. The
+ * request carries one {@link Item} per text; the response streams one {@link Result} per item
+ * as each finishes, in completion order, matched up by {@code id}. The records here and the
+ * pydantic models in {@code ai_controller.py} are the schema; keep them in step.
+ */
+public final class AIBatchProtocol {
+
+    public static final String PATH = "/api/ai/process-batch";
+    public static final String MEDIA_TYPE = "application/cbor-seq";
+
+    private static final CBORMapper CBOR = new CBORMapper();
+    private static final ObjectWriter ITEM_WRITER = CBOR.writerFor(Item.class);
+    private static final ObjectReader RESULT_READER = CBOR.readerFor(Result.class);
+
+    private AIBatchProtocol() {
+    }
+
+    public record Item(String id, String content, String title) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Result(String id, String summary, List<String> tags, String language, boolean success, String message) {
+    }
+
+    public static byte[] encode(List<Item> items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Item item : items) {
+            out.write(ITEM_WRITER.writeValueAsBytes(item));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes results lazily, blocking on the stream until each one arrives.
+     */
+    public static MappingIterator<Result> results(InputStream in) throws IOException {
+        return RESULT_READER.readValues(in);
+    }
+}
@@ -0,0 +1,161 @@
+package com.knowledgehub.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache of successful AI results keyed by content hash plus model/prompt version.
+ *
+ * The key is the SHA-256 of exactly what would be sent to the AI service, so identical content
+ * hits regardless of file name, owner or upload. Lookups try a small on-heap LRU first and the
+ * {@code ai_results} collection second; Mongo hits are promoted into memory. Bumping
+ * {@code ai.cache.model-version} when the model or prompts change makes every old entry miss.
+ */
+@Component
+public class AIResultCache {
+
+    private static final String COLLECTION = "ai_results";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${ai.cache.model-version:v1}")
+    private String modelVersion;
+
+    @Value("${ai.cache.memory-entries:2000}")
+    private int memoryEntries;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong mongoHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    private final Map<String, AIService.AIProcessResult> memory = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AIService.AIProcessResult> eldest) {
+            return size() > memoryEntries;
+        }
+    };
+
+    public String fileKey(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return "file:" + modelVersion + ":" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    public String textKey(String content, String title) {
+        MessageDigest digest = sha256();
+        // Length-prefix the title so ("ab", "c") and ("a", "bc") cannot collide
+        String titlePart = title != null ? title : "";
+        digest.update((titlePart.length() + ":" + titlePart).getBytes(StandardCharsets.UTF_8));
+        digest.update(content.getBytes(StandardCharsets.UTF_8));
+        return "text:" + modelVersion + ":" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    public Optional<AIService.AIProcessResult> get(String key) {
+        synchronized (memory) {
+            AIService.AIProcessResult cached = memory.get(key);
+            if (cached != null) {
+                memoryHits.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+
+        try {
+            Document stored = collection().find(Filters.eq("_id", key)).first();
+            if (stored != null) {
+                AIService.AIProcessResult result = new AIService.AIProcessResult(
+                        stored.getString("summary"),
+                        stored.getList("tags", String.class),
+                        stored.getString("language"),
+                        true,
+                        "Served from AI result cache");
+                synchronized (memory) {
+                    memory.put(key, result);
+                }
+                mongoHits.incrementAndGet();
+                return Optional.of(result);
+            }
+        } catch (Exception e) {
+            // The persistent tier is an optimization; a failed lookup is just a miss
+            System.err.println("AI result cache lookup failed: " + e.getMessage());
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, AIService.AIProcessResult result) {
+        if (!result.isSuccess()) {
+            return;
+        }
+        synchronized (memory) {
+            memory.put(key, result);
+        }
+        try {
+            Document stored = new Document("_id", key)
+                    .append("summary", result.getSummary())
+                    .append("tags", result.getTags() != null ? result.getTags() : List.of())
+                    .append("language", result.getLanguage())
+                    .append("modelVersion", modelVersion)
+                    .append("createdAt", new Date());
+            collection().replaceOne(Filters.eq("_id", key), stored, new ReplaceOptions().upsert(true));
+            writes.incrementAndGet();
+        } catch (Exception e) {
+            System.err.println("AI result cache write failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+        }
+        long fromMemory = memoryHits.get();
+        long fromMongo = mongoHits.get();
+        long missed = misses.get();
+        long lookups = fromMemory + fromMongo + missed;
+        stats.put("modelVersion", modelVersion);
+        stats.put("memoryHits", fromMemory);
+        stats.put("mongoHits", fromMongo);
+        stats.put("misses", missed);
+        stats.put("writes", writes.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) (fromMemory + fromMongo) / lookups);
+        return stats;
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
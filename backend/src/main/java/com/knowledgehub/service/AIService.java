@@ -1,116 +1,536 @@
 package com.knowledgehub.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
+/**
+ * Client for the Python AI service.
+ *
+ * Calls go through one pooled, keep-alive JDK {@link HttpClient} running on virtual threads.
+ * Every call has a hard deadline, so a hung AI server costs the caller at most that long. File
+ * and text calls have separate bulkheads, so slow file processing cannot starve text calls.
+ * {@code process-text} is idempotent, so when {@code ai.service.hedge-delay-ms} is set, a call
+ * still unanswered after that delay is sent again and the first successful response wins.
+ *
+ * Successful results are cached by content hash in {@link AIResultCache}, and concurrent calls
+ * for the same content share one request, so repeat content never reaches the AI service.
+ *
+ * Availability is not checked per request: a {@link CircuitBreaker} fed by call outcomes tracks
+ * it, calls fail fast while the circuit is open, and a scheduled health probe runs only then.
+ *
+ * Many texts can go out in one {@code process-batch} exchange ({@link AIBatchProtocol}) whose
+ * results stream back as they finish. An AI server without that endpoint is remembered for
+ * {@code ai.service.batch.retry-after-ms} and callers fall back to one call per text.
+ */
 @Service
 public class AIService {
     
+    private static final String OVERLOADED = "AI service overloaded, request shed";
+    
     @Value("${ai.service.url:http://localhost:8001}")
     private String aiServiceUrl;
     
-    private final RestTemplate restTemplate;
+    @Value("${ai.service.file-timeout-ms:120000}")
+    private long fileTimeoutMs;
+    
+    @Value("${ai.service.text-timeout-ms:30000}")
+    private long textTimeoutMs;
+    
+    @Value("${ai.service.health-timeout-ms:2000}")
+    private long healthTimeoutMs;
+    
+    @Value("${ai.service.hedge-delay-ms:0}")
+    private long hedgeDelayMs;
+    
+    @Value("${ai.service.bulkhead-wait-ms:100}")
+    private long bulkheadWaitMs;
+    
+    @Value("${ai.service.batch.enabled:true}")
+    private boolean batchEnabled;
+    
+    @Value("${ai.service.batch.timeout-ms:300000}")
+    private long batchTimeoutMs;
+    
+    @Value("${ai.service.batch.retry-after-ms:600000}")
+    private long batchRetryAfterMs;
+    
+    private volatile long batchUnsupportedUntil;
+    
+    private final ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final AdaptiveConcurrencyLimiter aiLimiter;
+    private final Semaphore fileBulkhead;
+    private final Semaphore textBulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final SingleFlight<String, AIProcessResult> aiFlights = new SingleFlight<>();
     
-    public AIService() {
-        this.restTemplate = new RestTemplate();
+    @Autowired
+    private AIResultCache aiResultCache;
+    
+    public AIService(@Value("${ai.service.max-concurrency:16}") int maxConcurrency,
+                     @Value("${ai.service.bulkhead.file:4}") int fileBulkheadSize,
+                     @Value("${ai.service.bulkhead.text:8}") int textBulkheadSize,
+                     @Value("${ai.service.connect-timeout-ms:2000}") long connectTimeoutMs,
+                     @Value("${ai.service.circuit.failure-threshold:5}") int failureThreshold) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(httpExecutor)
+                .build();
         this.objectMapper = new ObjectMapper();
+        this.aiLimiter = new AdaptiveConcurrencyLimiter("ai", Math.min(4, maxConcurrency), 1, maxConcurrency);
+        this.fileBulkhead = new Semaphore(fileBulkheadSize);
+        this.textBulkhead = new Semaphore(textBulkheadSize);
+        this.circuitBreaker = new CircuitBreaker("ai", failureThreshold);
     }
     
     public AIProcessResult processFile(MultipartFile file) throws IOException {
-        try {
-            // Prepare request
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-            
-            // Create multipart request body
-            org.springframework.util.LinkedMultiValueMap<String, Object> body = 
-                new org.springframework.util.LinkedMultiValueMap<>();
-            body.add("file", file.getResource());
-            
-            HttpEntity<org.springframework.util.LinkedMultiValueMap<String, Object>> requestEntity = 
-                new HttpEntity<>(body, headers);
-            
-            // Call AI service
-            String url = aiServiceUrl + "/api/ai/process-file";
-            ResponseEntity<Map> response = restTemplate.exchange(
-                url, HttpMethod.POST, requestEntity, Map.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> result = response.getBody();
-                return new AIProcessResult(
-                    (String) result.get("summary"),
-                    (java.util.List<String>) result.get("tags"),
-                    (String) result.get("language"),
-                    true,
-                    (String) result.get("message")
-                );
-            } else {
-                return new AIProcessResult(null, null, null, false, "AI service returned error");
+        return processFile(file.getOriginalFilename(), file.getContentType(), () -> {
+            try {
+                return file.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            
-        } catch (Exception e) {
-            System.err.println("Error calling AI service: " + e.getMessage());
-            return new AIProcessResult(null, null, null, false, "AI service unavailable: " + e.getMessage());
+        });
+    }
+    
+    public AIProcessResult processFile(Path path, String fileName, String contentType) {
+        return processFile(fileName, contentType, () -> {
+            try {
+                return Files.newInputStream(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private AIProcessResult processFile(String fileName, String contentType, Supplier<InputStream> content) {
+        String cacheKey;
+        try (InputStream stream = content.get()) {
+            cacheKey = aiResultCache.fileKey(stream);
+        } catch (IOException | UncheckedIOException e) {
+            return new AIProcessResult(null, null, null, false, "Failed to read file for AI processing: " + e.getMessage());
+        }
+        return cached(cacheKey, () -> sendFile(fileName, contentType, content));
+    }
+    
+    private AIProcessResult sendFile(String fileName, String contentType, Supplier<InputStream> content) {
+        String boundary = "----knowledgehub-" + UUID.randomUUID();
+        String partHeader = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + quotedFileName(fileName) + "\"\r\n"
+                + "Content-Type: " + (contentType != null ? contentType : "application/octet-stream")
+                + "\r\n\r\n";
+        
+        HttpRequest request = HttpRequest.newBuilder(URI.create(aiServiceUrl + "/api/ai/process-file"))
+                .timeout(Duration.ofMillis(fileTimeoutMs))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(partHeader, StandardCharsets.UTF_8),
+                        HttpRequest.BodyPublishers.ofInputStream(content),
+                        HttpRequest.BodyPublishers.ofString("\r\n--" + boundary + "--\r\n", StandardCharsets.UTF_8)))
+                .build();
+        
+        return call(fileBulkhead, () -> await(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()),
+                fileTimeoutMs));
+    }
+    
+    /**
+     * Makes an uploader-supplied name safe inside the quoted filename parameter: line breaks and
+     * other control characters would end the part header, quotes would end the parameter.
+     */
+    private static String quotedFileName(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return "file";
         }
+        return fileName.replaceAll("\\p{Cntrl}", "_")
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"");
     }
     
     public AIProcessResult processText(String content, String title) {
+        return cached(aiResultCache.textKey(content, title), () -> sendText(content, title));
+    }
+    
+    private AIProcessResult sendText(String content, String title) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("content", content);
+        if (title != null) {
+            requestBody.put("title", title);
+        }
+        
+        HttpRequest request;
         try {
-            // Prepare request body
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("content", content);
-            if (title != null) {
-                requestBody.put("title", title);
+            request = HttpRequest.newBuilder(URI.create(aiServiceUrl + "/api/ai/process-text"))
+                    .timeout(Duration.ofMillis(textTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestBody)))
+                    .build();
+        } catch (IOException e) {
+            return new AIProcessResult(null, null, null, false, "Failed to encode AI request: " + e.getMessage());
+        }
+        
+        return call(textBulkhead, () -> sendHedged(request));
+    }
+    
+    private AIProcessResult cached(String cacheKey, Supplier<AIProcessResult> compute) {
+        Optional<AIProcessResult> hit = aiResultCache.get(cacheKey);
+        if (hit.isPresent()) {
+            return hit.get();
+        }
+        return aiFlights.execute(cacheKey, () -> {
+            AIProcessResult result = compute.get();
+            aiResultCache.put(cacheKey, result);
+            return result;
+        });
+    }
+    
+    private AIProcessResult call(Semaphore bulkhead, AICall call) {
+        return guarded(bulkhead, 1, AIService::failed, () -> {
+            HttpResponse<String> response = call.execute();
+            recordStatus(response.statusCode());
+            if (response.statusCode() == 200 && response.body() != null && !response.body().isEmpty()) {
+                ProcessResponse result = objectMapper.readValue(response.body(), ProcessResponse.class);
+                return new AIProcessResult(result.summary(), result.tags(), result.language(), true, result.message());
+            } else {
+                return failed("AI service returned error");
             }
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(requestBody, headers);
-            
-            // Call AI service
-            String url = aiServiceUrl + "/api/ai/process-text";
-            ResponseEntity<Map> response = restTemplate.exchange(
-                url, HttpMethod.POST, requestEntity, Map.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> result = response.getBody();
-                return new AIProcessResult(
-                    (String) result.get("summary"),
-                    (java.util.List<String>) result.get("tags"),
-                    (String) result.get("language"),
-                    true,
-                    (String) result.get("message")
-                );
+        });
+    }
+    
+    /**
+     * Runs a call behind the circuit breaker, a bulkhead slot and the adaptive limiter. A call
+     * carrying several items reports its latency per item so the limiter's baseline holds.
+     */
+    private <T> T guarded(Semaphore bulkhead, int items, Function<String, T> failure, GuardedCall<T> call) {
+        // Fail fast while the AI service is known to be down, before taking any slots
+        if (!circuitBreaker.allowRequest()) {
+            return failure.apply("AI service unavailable (circuit open)");
+        }
+        boolean admitted;
+        try {
+            admitted = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            circuitBreaker.onNotAttempted();
+            return failure.apply(OVERLOADED);
+        }
+        try {
+            if (!aiLimiter.tryAcquire()) {
+                circuitBreaker.onNotAttempted();
+                return failure.apply(OVERLOADED);
+            }
+            long start = System.nanoTime();
+            try {
+                return call.execute();
+            } catch (Exception e) {
+                circuitBreaker.onFailure();
+                System.err.println("Error calling AI service: " + e.getMessage());
+                return failure.apply("AI service unavailable: " + e.getMessage());
+            } finally {
+                aiLimiter.release((System.nanoTime() - start) / Math.max(1, items));
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+    
+    private void recordStatus(int statusCode) {
+        if (statusCode >= 500) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+    
+    /**
+     * Whether {@link #processTextBatch} is worth trying right now.
+     */
+    public boolean isBatchAvailable() {
+        return batchEnabled && System.currentTimeMillis() >= batchUnsupportedUntil;
+    }
+    
+    /**
+     * Processes many texts over one streamed exchange; results come back in input order.
+     * Cached texts are answered locally and {@code onEachDone} runs once per text as it
+     * completes. Returns empty, having done no work, if the AI server has no batch endpoint.
+     */
+    public Optional<List<AIProcessResult>> processTextBatch(List<TextInput> inputs, IntConsumer onEachDone) {
+        AIProcessResult[] results = new AIProcessResult[inputs.size()];
+        String[] keys = new String[inputs.size()];
+        List<AIBatchProtocol.Item> misses = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            TextInput input = inputs.get(i);
+            keys[i] = aiResultCache.textKey(input.content(), input.title());
+            Optional<AIProcessResult> hit = aiResultCache.get(keys[i]);
+            if (hit.isPresent()) {
+                results[i] = hit.get();
             } else {
-                return new AIProcessResult(null, null, null, false, "AI service returned error");
+                misses.add(new AIBatchProtocol.Item(String.valueOf(i), input.content(), input.title()));
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            byte[] body;
+            try {
+                body = AIBatchProtocol.encode(misses);
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(aiServiceUrl + AIBatchProtocol.PATH))
+                    .timeout(Duration.ofMillis(batchTimeoutMs))
+                    .header("Content-Type", AIBatchProtocol.MEDIA_TYPE)
+                    .header("Accept", AIBatchProtocol.MEDIA_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            
+            boolean supported = guarded(textBulkhead, misses.size(), message -> {
+                for (AIBatchProtocol.Item item : misses) {
+                    int index = Integer.parseInt(item.id());
+                    if (results[index] == null) {
+                        results[index] = failed(message);
+                        onEachDone.accept(index);
+                    }
+                }
+                return true;
+            }, () -> streamBatch(request, results, keys, onEachDone));
+            if (!supported) {
+                return Optional.empty();
+            }
+        }
+        
+        // Cache hits are reported only now, so a fallback after an unsupported batch counts each text once
+        List<Integer> pending = misses.stream().map(item -> Integer.parseInt(item.id())).toList();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = failed("AI batch ended without a result for this text");
+                onEachDone.accept(i);
+            } else if (!pending.contains(i)) {
+                onEachDone.accept(i);
+            }
+        }
+        return Optional.of(List.of(results));
+    }
+    
+    private boolean streamBatch(HttpRequest request, AIProcessResult[] results, String[] keys,
+                                IntConsumer onEachDone) throws Exception {
+        HttpResponse<InputStream> response = await(
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()), batchTimeoutMs);
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 404 || response.statusCode() == 405 || response.statusCode() == 415) {
+                circuitBreaker.onSuccess();
+                batchUnsupportedUntil = System.currentTimeMillis() + batchRetryAfterMs;
+                System.err.println("AI service has no batch endpoint, using single calls for "
+                        + batchRetryAfterMs + "ms");
+                return false;
+            }
+            recordStatus(response.statusCode());
+            if (response.statusCode() != 200) {
+                throw new IOException("AI batch returned status " + response.statusCode());
             }
             
+            // Headers arrive before results do; the watchdog bounds the whole stream
+            CompletableFuture<Void> watchdog = CompletableFuture.runAsync(() -> {
+                try {
+                    body.close();
+                } catch (IOException ignored) {
+                    // Closing is all we wanted
+                }
+            }, CompletableFuture.delayedExecutor(batchTimeoutMs, TimeUnit.MILLISECONDS));
+            try (MappingIterator<AIBatchProtocol.Result> stream = AIBatchProtocol.results(body)) {
+                while (stream.hasNextValue()) {
+                    AIBatchProtocol.Result result = stream.nextValue();
+                    int index = Integer.parseInt(result.id());
+                    AIProcessResult processed = new AIProcessResult(
+                            result.summary(), result.tags(), result.language(), result.success(), result.message());
+                    aiResultCache.put(keys[index], processed);
+                    results[index] = processed;
+                    onEachDone.accept(index);
+                }
+            } finally {
+                watchdog.cancel(false);
+            }
+        }
+        return true;
+    }
+    
+    private HttpResponse<String> sendHedged(HttpRequest request) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(textTimeoutMs);
+        CompletableFuture<HttpResponse<String>> primary =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        if (hedgeDelayMs <= 0 || hedgeDelayMs >= textTimeoutMs) {
+            return await(primary, textTimeoutMs);
+        }
+        
+        try {
+            return unwrap(() -> primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException slow) {
+            // Fall through and hedge
         } catch (Exception e) {
-            System.err.println("Error calling AI service: " + e.getMessage());
-            return new AIProcessResult(null, null, null, false, "AI service unavailable: " + e.getMessage());
+            primary.cancel(true);
+            throw e;
+        }
+        
+        // The hedge needs its own slot; without one, just keep waiting on the primary
+        if (!textBulkhead.tryAcquire()) {
+            return await(primary, remainingMillis(deadline));
+        }
+        try {
+            CompletableFuture<HttpResponse<String>> hedge =
+                    httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            try {
+                return await(firstSuccessful(primary, hedge), remainingMillis(deadline));
+            } finally {
+                primary.cancel(true);
+                hedge.cancel(true);
+            }
+        } finally {
+            textBulkhead.release();
+        }
+    }
+    
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> attempt : java.util.List.of(first, second)) {
+            attempt.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+    
+    private static <T> T await(CompletableFuture<T> future, long timeoutMs) throws Exception {
+        try {
+            return unwrap(() -> future.get(timeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TimeoutException("AI service did not answer within " + timeoutMs + "ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+    
+    private static <T> T unwrap(TimedGet<T> get) throws Exception {
+        try {
+            return get.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
         }
     }
     
+    private static long remainingMillis(long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+    
+    private static AIProcessResult failed(String message) {
+        return new AIProcessResult(null, null, null, false, message);
+    }
+    
+    /**
+     * Cached availability from the circuit breaker; never touches the network.
+     */
     public boolean isAIServiceAvailable() {
+        return circuitBreaker.isAvailable();
+    }
+    
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+    
+    @Scheduled(fixedDelayString = "${ai.service.circuit.probe-interval-ms:5000}")
+    public void probeWhileOpen() {
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            circuitBreaker.onProbe(checkHealth());
+        }
+    }
+    
+    private boolean checkHealth() {
         try {
-            String url = aiServiceUrl + "/api/ai/health";
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            return response.getStatusCode() == HttpStatus.OK;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(aiServiceUrl + "/api/ai/health"))
+                    .timeout(Duration.ofMillis(healthTimeoutMs))
+                    .GET()
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
             return false;
         }
     }
     
+    @PreDestroy
+    public void shutdown() {
+        httpExecutor.shutdownNow();
+    }
+    
+    @FunctionalInterface
+    private interface AICall {
+        HttpResponse<String> execute() throws Exception;
+    }
+    
+    @FunctionalInterface
+    private interface TimedGet<T> {
+        T get() throws Exception;
+    }
+    
+    @FunctionalInterface
+    private interface GuardedCall<T> {
+        T execute() throws Exception;
+    }
+    
+    public record TextInput(String content, String title) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ProcessResponse(String summary, java.util.List<String> tags, String language, String message) {
+    }
+    
     public static class AIProcessResult {
         private final String summary;
         private final java.util.List<String> tags;
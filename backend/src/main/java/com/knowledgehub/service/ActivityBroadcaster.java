@@ -0,0 +1,244 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.entity.Comment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans document, comment and rating activity out to Server-Sent Events subscribers.
+ * Publishing never blocks: each subscriber owns a bounded buffer drained by its own virtual
+ * thread, and a subscriber whose buffer overflows is evicted instead of slowing everyone else.
+ * Topics published with {@link #publishRetained} also replay their latest event to anyone who
+ * subscribes later, so a client that connects after a job has moved on still sees where it is.
+ */
+@Service
+public class ActivityBroadcaster {
+
+    public static final String FEED_TOPIC = "feed";
+
+    @Value("${events.subscriber-buffer-size:64}")
+    private int subscriberBufferSize;
+
+    @Value("${events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${events.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${events.retained-topics:1000}")
+    private int retainedTopics;
+
+    private final ConcurrentHashMap<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+
+    private final Map<String, Event> retained = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Event> eldest) {
+            return size() > retainedTopics;
+        }
+    };
+
+    public static String documentTopic(String documentId) {
+        return "document:" + documentId;
+    }
+
+    public static String enrichmentTopic(String jobId) {
+        return "enrichment:" + jobId;
+    }
+
+    public SseEmitter subscribe(String topic) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(topic, emitter, new ArrayBlockingQueue<>(subscriberBufferSize));
+        
+        // Registering and replaying under the same lock as publishRetained keeps the replayed
+        // event from overtaking a newer one
+        synchronized (retained) {
+            topics.compute(topic, (key, subscribers) -> {
+                Set<Subscriber> result = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                result.add(subscriber);
+                return result;
+            });
+            Event latest = retained.get(topic);
+            if (latest != null) {
+                subscriber.buffer.offer(latest);
+            }
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        
+        subscriber.drainer = Thread.ofVirtual().name("sse-" + topic).start(() -> drain(subscriber));
+        return emitter;
+    }
+
+    public void publish(String topic, String eventName, Object payload) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers == null) {
+            return;
+        }
+        Event event = new Event(eventName, payload);
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.buffer.offer(event)) {
+                System.err.println("Evicting slow SSE subscriber on topic " + topic);
+                unsubscribe(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Like {@link #publish}, but remembers the event as the topic's latest for future subscribers.
+     */
+    public void publishRetained(String topic, String eventName, Object payload) {
+        synchronized (retained) {
+            retained.put(topic, new Event(eventName, payload));
+            publish(topic, eventName, payload);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return topics.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @EventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("documentId", event.documentId());
+        payload.put("type", event.type());
+        publish(FEED_TOPIC, "document", payload);
+        publish(documentTopic(event.documentId()), "document", payload);
+    }
+
+    @EventListener
+    public void onDocumentsImported(DocumentsImportedEvent event) {
+        // One feed entry per batch; nobody can be following a document that did not exist yet
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("documentIds", event.documentIds());
+        payload.put("type", "IMPORTED");
+        publish(FEED_TOPIC, "documents", payload);
+    }
+
+    @EventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        Comment comment = event.comment();
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", event.type());
+        payload.put("id", comment.getId());
+        payload.put("documentId", comment.getDocument().getId());
+        payload.put("content", comment.getContent());
+        payload.put("authorName", comment.getAuthor().getFullName());
+        payload.put("authorId", comment.getAuthor().getId());
+        payload.put("createdAt", comment.getCreatedAt());
+        payload.put("updatedAt", comment.getUpdatedAt());
+        publish(documentTopic(comment.getDocument().getId()), "comment", payload);
+    }
+
+    @EventListener
+    public void onRatingChanged(RatingChangedEvent event) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("documentId", event.documentId());
+        payload.put("averageRating", event.averageRating());
+        payload.put("totalRatings", event.totalRatings());
+        publish(documentTopic(event.documentId()), "rating", payload);
+    }
+
+    @EventListener
+    public void onEnrichmentProgress(EnrichmentProgressEvent event) {
+        publishRetained(enrichmentTopic(event.jobId()), "progress", progressPayload(event));
+    }
+
+    /**
+     * Retains progress rebuilt from the job record, unless a live event is already retained;
+     * covers subscribers arriving after a restart or after the topic was evicted.
+     */
+    public void retainEnrichmentProgress(EnrichmentProgressEvent event) {
+        String topic = enrichmentTopic(event.jobId());
+        synchronized (retained) {
+            if (!retained.containsKey(topic)) {
+                publishRetained(topic, "progress", progressPayload(event));
+            }
+        }
+    }
+
+    private static Map<String, Object> progressPayload(EnrichmentProgressEvent event) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("jobId", event.jobId());
+        payload.put("documentId", event.documentId());
+        payload.put("stage", event.stage());
+        if (event.totalChunks() != null) {
+            payload.put("completedChunks", event.completedChunks());
+            payload.put("totalChunks", event.totalChunks());
+        }
+        if (event.summary() != null) {
+            payload.put("summary", event.summary());
+        }
+        if (event.tags() != null) {
+            payload.put("tags", event.tags());
+        }
+        if (event.message() != null) {
+            payload.put("message", event.message());
+        }
+        return payload;
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (!subscriber.closed) {
+                Event event = subscriber.buffer.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(event.name())
+                            .data(event.payload(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks take care of the rest
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        topics.computeIfPresent(subscriber.topic, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        Thread drainer = subscriber.drainer;
+        if (drainer != null && drainer != Thread.currentThread()) {
+            drainer.interrupt();
+        }
+    }
+
+    private record Event(String name, Object payload) {
+    }
+
+    private static final class Subscriber {
+        private final String topic;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> buffer;
+        private volatile boolean closed;
+        private volatile Thread drainer;
+
+        private Subscriber(String topic, SseEmitter emitter, BlockingQueue<Event> buffer) {
+            this.topic = topic;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
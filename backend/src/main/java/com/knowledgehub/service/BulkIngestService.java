@@ -0,0 +1,398 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.dto.BulkUploadResponse;
+import com.knowledgehub.entity.DocumentEntity;
+import com.knowledgehub.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports every supported file in a ZIP archive as a document.
+ *
+ * The archive is read as a stream, one entry at a time, so it is never written to disk or held in
+ * memory whole. Each file is handed to a virtual thread that checks it, stores it and signs it for
+ * near-duplicate detection, at most {@code bulk-upload.parallelism} at a time; reading pauses
+ * while that many more files are waiting, which bounds memory to a few files. Prepared documents
+ * are written {@code bulk-upload.batch-size} at a time with one insertMany. Caches and listeners
+ * hear about each batch once rather than about every document.
+ *
+ * Documents are stored without AI enrichment and left to the backfill, which feeds them to the
+ * enrichment queue without crowding out interactive uploads. Archives are capped in entry count
+ * and total uncompressed size, so a small upload cannot expand into an unbounded amount of work.
+ */
+@Service
+public class BulkIngestService {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            ".pdf", "application/pdf",
+            ".doc", "application/msword",
+            ".docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            ".jpg", "image/jpeg",
+            ".jpeg", "image/jpeg",
+            ".png", "image/png");
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private NearDuplicateService nearDuplicateService;
+
+    @Autowired
+    private EnrichmentBackfillService enrichmentBackfillService;
+
+    @Value("${bulk-upload.parallelism:4}")
+    private int parallelism;
+
+    @Value("${bulk-upload.batch-size:100}")
+    private int batchSize;
+
+    @Value("${bulk-upload.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${bulk-upload.max-uncompressed-bytes:2147483648}")
+    private long maxUncompressedBytes;
+
+    private final Semaphore archives;
+
+    public BulkIngestService(@Value("${bulk-upload.max-concurrent-archives:2}") int maxConcurrentArchives) {
+        this.archives = new Semaphore(maxConcurrentArchives);
+    }
+
+    public BulkUploadResponse ingest(InputStream archive, List<String> tags, DocumentEntity.Visibility visibility,
+                                     User owner, boolean useAI) {
+        if (!archives.tryAcquire()) {
+            throw new RuntimeException("Too many archive imports in progress, please try again later");
+        }
+        try {
+            return new Ingest(tags, visibility, owner).run(archive, useAI);
+        } finally {
+            archives.release();
+        }
+    }
+
+    private record Prepared(int position, String path, DocumentEntity document, List<String> nearDuplicateIds) {
+    }
+
+    /**
+     * State of one archive import.
+     */
+    private class Ingest {
+
+        private final List<String> tags;
+        private final DocumentEntity.Visibility visibility;
+        private final User owner;
+
+        private final Map<Integer, BulkUploadResponse.FileResult> results = new ConcurrentSkipListMap<>();
+        private final Semaphore waiting = new Semaphore(parallelism * 2);
+        private final Semaphore running = new Semaphore(parallelism);
+        private final List<Prepared> pending = new ArrayList<>();
+
+        private int entries;
+        private long uncompressedBytes;
+        private String stopReason;
+
+        Ingest(List<String> tags, DocumentEntity.Visibility visibility, User owner) {
+            this.tags = tags;
+            this.visibility = visibility;
+            this.owner = owner;
+        }
+
+        BulkUploadResponse run(InputStream archive, boolean useAI) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                try {
+                    readEntries(new ZipInputStream(archive), executor);
+                } catch (IOException | RuntimeException e) {
+                    // Files already read are still imported; only the rest of the archive is lost
+                    stopReason = "Archive could not be read past entry " + entries + ": " + e.getMessage();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopReason = "Import interrupted";
+                }
+            }
+            flush(takePending(true));
+
+            int stored = count(BulkUploadResponse.Status.STORED);
+            boolean enrichmentQueued = false;
+            if (useAI && stored > 0) {
+                try {
+                    enrichmentQueued = enrichmentBackfillService.startUnlessPaused();
+                } catch (Exception e) {
+                    System.err.println("Failed to start enrichment for imported documents: " + e.getMessage());
+                }
+            }
+            return new BulkUploadResponse(results.size(), stored,
+                    count(BulkUploadResponse.Status.REJECTED), count(BulkUploadResponse.Status.FAILED),
+                    stopReason != null, stopReason, enrichmentQueued, visibleResults());
+        }
+
+        private void readEntries(ZipInputStream zip, ExecutorService executor) throws IOException, InterruptedException {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String path = entry.getName();
+                if (entry.isDirectory() || isJunk(path)) {
+                    uncompressedBytes += drain(zip);
+                    if (overBudget()) {
+                        return;
+                    }
+                    continue;
+                }
+                if (entries >= maxEntries) {
+                    stopReason = "Archive has more than " + maxEntries + " files";
+                    return;
+                }
+
+                int index = entries++;
+                String contentType = CONTENT_TYPES.get(extensionOf(path));
+                if (contentType == null) {
+                    uncompressedBytes += drain(zip);
+                    results.put(index, BulkUploadResponse.FileResult.rejected(path, "Invalid file type"));
+                } else {
+                    byte[] content = zip.readNBytes(DocumentService.MAX_FILE_SIZE + 1);
+                    uncompressedBytes += content.length;
+                    if (content.length > DocumentService.MAX_FILE_SIZE) {
+                        uncompressedBytes += drain(zip);
+                        results.put(index, BulkUploadResponse.FileResult.rejected(path, "File size exceeds 10MB limit"));
+                    } else {
+                        waiting.acquire();
+                        executor.execute(() -> {
+                            try {
+                                prepare(index, path, contentType, content);
+                            } finally {
+                                waiting.release();
+                            }
+                        });
+                    }
+                }
+                if (overBudget()) {
+                    return;
+                }
+            }
+        }
+
+        private void prepare(int index, String path, String contentType, byte[] content) {
+            if (content.length == 0) {
+                results.put(index, BulkUploadResponse.FileResult.rejected(path, "File is empty"));
+                return;
+            }
+            if (!hasSignatureOf(content, contentType)) {
+                results.put(index, BulkUploadResponse.FileResult.rejected(path, "File content does not match its type"));
+                return;
+            }
+
+            Prepared prepared;
+            try {
+                running.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.put(index, BulkUploadResponse.FileResult.failed(path, "Import interrupted"));
+                return;
+            }
+            try {
+                String fileName = baseName(path);
+                DocumentEntity document = documentService.prepareUpload(fileName, contentType, content,
+                        titleOf(fileName), DocumentService.placeholderDescription(owner), tags, visibility, owner,
+                        DocumentEntity.EnrichmentStatus.NONE);
+                List<String> nearDuplicateIds = nearDuplicateService.index(document).stream()
+                        .map(NearDuplicateService.Match::documentId)
+                        .toList();
+                prepared = new Prepared(index, path, document, nearDuplicateIds);
+            } catch (Exception e) {
+                results.put(index, BulkUploadResponse.FileResult.failed(path, e.getMessage()));
+                return;
+            } finally {
+                running.release();
+            }
+
+            List<Prepared> batch;
+            synchronized (pending) {
+                pending.add(prepared);
+                batch = takePending(false);
+            }
+            flush(batch);
+        }
+
+        private List<Prepared> takePending(boolean all) {
+            synchronized (pending) {
+                if (pending.isEmpty() || (!all && pending.size() < batchSize)) {
+                    return List.of();
+                }
+                List<Prepared> batch = new ArrayList<>(pending);
+                pending.clear();
+                return batch;
+            }
+        }
+
+        private void flush(List<Prepared> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                documentService.insertAll(batch.stream().map(Prepared::document).toList());
+                batch.forEach(this::stored);
+            } catch (Exception e) {
+                System.err.println("Bulk insert of " + batch.size() + " documents failed: " + e.getMessage());
+                sortOutFailedBatch(batch, e.getMessage());
+            }
+        }
+
+        /**
+         * An insertMany can fail part-way; keep what made it in and clean up after the rest.
+         */
+        private void sortOutFailedBatch(List<Prepared> batch, String error) {
+            Set<String> existing;
+            try {
+                existing = documentService.findExistingIds(batch.stream().map(prepared -> prepared.document().getId()).toList());
+            } catch (Exception e) {
+                // Without knowing what was written, leave the stored files alone rather than orphan a document
+                batch.forEach(prepared -> results.put(prepared.position(),
+                        BulkUploadResponse.FileResult.failed(prepared.path(), error)));
+                return;
+            }
+            for (Prepared prepared : batch) {
+                if (existing.contains(prepared.document().getId())) {
+                    stored(prepared);
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(Paths.get(prepared.document().getFilePath()));
+                    nearDuplicateService.remove(prepared.document().getId());
+                } catch (Exception e) {
+                    System.err.println("Failed to clean up after " + prepared.path() + ": " + e.getMessage());
+                }
+                results.put(prepared.position(), BulkUploadResponse.FileResult.failed(prepared.path(), error));
+            }
+        }
+
+        private void stored(Prepared prepared) {
+            results.put(prepared.position(), BulkUploadResponse.FileResult.stored(
+                    prepared.path(), prepared.document().getId(), prepared.nearDuplicateIds()));
+        }
+
+        /**
+         * Drops near-duplicate links to documents the owner cannot see, or that failed to import.
+         */
+        private List<BulkUploadResponse.FileResult> visibleResults() {
+            Set<String> linked = new HashSet<>();
+            results.values().forEach(result -> {
+                if (result.nearDuplicateIds() != null) {
+                    linked.addAll(result.nearDuplicateIds());
+                }
+            });
+            if (linked.isEmpty()) {
+                return List.copyOf(results.values());
+            }
+
+            Set<String> visible = new HashSet<>();
+            try {
+                for (DocumentEntity document : documentService.findAllByIds(List.copyOf(linked))) {
+                    if (document.getVisibility() != DocumentEntity.Visibility.PRIVATE
+                            || document.getOwner().getId().equals(owner.getId())) {
+                        visible.add(document.getId());
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to load near-duplicates of imported documents: " + e.getMessage());
+            }
+            return results.values().stream()
+                    .map(result -> result.nearDuplicateIds() == null ? result : new BulkUploadResponse.FileResult(
+                            result.path(), result.status(), result.documentId(), result.error(),
+                            result.nearDuplicateIds().stream().filter(visible::contains).toList()))
+                    .toList();
+        }
+
+        private int count(BulkUploadResponse.Status status) {
+            return (int) results.values().stream().filter(result -> result.status() == status).count();
+        }
+
+        private boolean overBudget() {
+            if (uncompressedBytes > maxUncompressedBytes) {
+                stopReason = "Archive expands to more than " + maxUncompressedBytes + " bytes";
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skips the rest of the current entry, giving up once it alone would exceed the size budget.
+         */
+        private long drain(InputStream entry) throws IOException {
+            byte[] buffer = new byte[8192];
+            long skipped = 0;
+            int read;
+            while (uncompressedBytes + skipped <= maxUncompressedBytes && (read = entry.read(buffer)) != -1) {
+                skipped += read;
+            }
+            return skipped;
+        }
+    }
+
+    /**
+     * Folders, resource forks and Finder metadata that archivers add alongside the real files.
+     */
+    private static boolean isJunk(String path) {
+        String name = baseName(path);
+        return path.startsWith("__MACOSX/") || name.startsWith("._") || name.equals(".DS_Store") || name.equals("Thumbs.db");
+    }
+
+    /**
+     * Keeps only the file name, so entry paths like {@code ../../etc/passwd} never reach the file system.
+     */
+    private static String baseName(String path) {
+        String normalized = path.replace('\\', '/');
+        return normalized.substring(normalized.lastIndexOf('/') + 1);
+    }
+
+    private static String extensionOf(String path) {
+        String name = baseName(path);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot).toLowerCase() : "";
+    }
+
+    private static String titleOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName).replace('_', ' ').trim();
+    }
+
+    /**
+     * The extension alone is the archive author's word; the leading bytes show what the file really is.
+     */
+    private static boolean hasSignatureOf(byte[] content, String contentType) {
+        return switch (contentType) {
+            case "application/pdf" -> startsWith(content, 0x25, 0x50, 0x44, 0x46);
+            case "application/msword" -> startsWith(content, 0xD0, 0xCF, 0x11, 0xE0);
+            case "application/vnd.openxmlformats-officedocument.wordprocessingml.document" -> startsWith(content, 0x50, 0x4B, 0x03, 0x04);
+            case "image/jpeg" -> startsWith(content, 0xFF, 0xD8, 0xFF);
+            case "image/png" -> startsWith(content, 0x89, 0x50, 0x4E, 0x47);
+            default -> false;
+        };
+    }
+
+    private static boolean startsWith(byte[] content, int... signature) {
+        if (content.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((content[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
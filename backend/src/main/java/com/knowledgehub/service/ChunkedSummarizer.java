@@ -0,0 +1,314 @@
+package com.knowledgehub.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Map-reduce summarization for documents too long for a single AI call.
+ *
+ * Text is extracted on this side and split on paragraph and sentence boundaries into chunks of
+ * roughly {@code ai.chunking.chunk-tokens} tokens with a small overlap. Chunks are summarized
+ * concurrently, pipelined over one {@code process-batch} exchange when the AI server supports it
+ * and otherwise as separate {@code process-text} calls, at most {@code ai.chunking.parallelism}
+ * at a time, so a long document takes about as long as its slowest chunk. The partial summaries are then
+ * reduced by one more call (recursively if they are themselves too long); tags are merged by
+ * frequency across chunks. Files without extractable text fall back to {@code process-file}.
+ * Callers can pass a {@link ProgressListener} to hear about each stage as it starts.
+ */
+@Service
+public class ChunkedSummarizer {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MAX_TAGS = 10;
+    private static final int MAX_REDUCE_DEPTH = 3;
+
+    @Autowired
+    private AIService aiService;
+
+    @Autowired
+    private DocumentTextExtractor textExtractor;
+
+    @Value("${ai.chunking.chunk-tokens:1500}")
+    private int chunkTokens;
+
+    @Value("${ai.chunking.overlap-tokens:100}")
+    private int overlapTokens;
+
+    @Value("${ai.chunking.parallelism:4}")
+    private int parallelism;
+
+    @Value("${ai.chunking.max-chunks:40}")
+    private int maxChunks;
+
+    /**
+     * Hears about summarization stages. Calls come from worker threads but never overlap.
+     */
+    public interface ProgressListener {
+
+        ProgressListener NONE = new ProgressListener() {
+        };
+
+        default void extracting() {
+        }
+
+        default void summarizing(int completedChunks, int totalChunks) {
+        }
+
+        default void tagging() {
+        }
+    }
+
+    public AIService.AIProcessResult summarize(Path path, String fileName, String contentType,
+                                               ProgressListener progress) {
+        progress.extracting();
+        Optional<String> text = textExtractor.extract(path, contentType);
+        if (text.isEmpty()) {
+            progress.summarizing(0, 1);
+            return aiService.processFile(path, fileName, contentType);
+        }
+        return summarizeText(normalize(text.get()), fileName, 0, progress);
+    }
+
+    private AIService.AIProcessResult summarizeText(String text, String title, int depth, ProgressListener progress) {
+        List<String> chunks = split(text);
+        progress.summarizing(0, chunks.size());
+        if (chunks.size() == 1) {
+            return aiService.processText(chunks.get(0), title);
+        }
+
+        List<AIService.AIProcessResult> partials = mapChunks(chunks, title, progress);
+        List<AIService.AIProcessResult> succeeded = partials.stream().filter(AIService.AIProcessResult::isSuccess).toList();
+        if (succeeded.isEmpty()) {
+            return new AIService.AIProcessResult(null, null, null, false,
+                    "All " + chunks.size() + " chunks failed: " + partials.get(0).getMessage());
+        }
+        progress.tagging();
+        return reduce(succeeded, chunks.size(), title, depth);
+    }
+
+    private List<AIService.AIProcessResult> mapChunks(List<String> chunks, String title, ProgressListener progress) {
+        int[] completed = new int[1];
+        if (aiService.isBatchAvailable()) {
+            List<AIService.TextInput> inputs = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                inputs.add(new AIService.TextInput(chunks.get(i), chunkTitle(title, i, chunks.size())));
+            }
+            Optional<List<AIService.AIProcessResult>> batched = aiService.processTextBatch(inputs,
+                    index -> progress.summarizing(++completed[0], chunks.size()));
+            if (batched.isPresent()) {
+                return batched.get();
+            }
+        }
+
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<AIService.AIProcessResult>> futures = new ArrayList<>(chunks.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < chunks.size(); i++) {
+                String chunk = chunks.get(i);
+                String chunkTitle = chunkTitle(title, i, chunks.size());
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return aiService.processText(chunk, chunkTitle);
+                    } finally {
+                        permits.release();
+                        // Serialized so listeners see the count go up one step at a time
+                        synchronized (completed) {
+                            progress.summarizing(++completed[0], chunks.size());
+                        }
+                    }
+                }));
+            }
+
+            List<AIService.AIProcessResult> results = new ArrayList<>(futures.size());
+            for (Future<AIService.AIProcessResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(new AIService.AIProcessResult(null, null, null, false, e.getCause().getMessage()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    throw new RuntimeException("Interrupted while summarizing chunks");
+                }
+            }
+            return results;
+        }
+    }
+
+    private AIService.AIProcessResult reduce(List<AIService.AIProcessResult> partials, int chunkCount,
+                                             String title, int depth) {
+        StringBuilder combined = new StringBuilder();
+        for (AIService.AIProcessResult partial : partials) {
+            if (partial.getSummary() != null && !partial.getSummary().isBlank()) {
+                if (combined.length() > 0) {
+                    combined.append("\n\n");
+                }
+                combined.append(partial.getSummary().trim());
+            }
+        }
+
+        AIService.AIProcessResult reduced = null;
+        if (combined.length() > 0) {
+            if (combined.length() <= chunkTokens * CHARS_PER_TOKEN) {
+                reduced = aiService.processText(combined.toString(), title);
+            } else if (depth < MAX_REDUCE_DEPTH) {
+                reduced = summarizeText(combined.toString(), title, depth + 1, ProgressListener.NONE);
+            }
+        }
+
+        boolean reducedOk = reduced != null && reduced.isSuccess();
+        String summary = reducedOk ? reduced.getSummary() : truncate(combined.toString(), chunkTokens * CHARS_PER_TOKEN);
+        List<String> tags = mergeTags(reducedOk ? reduced.getTags() : null, partials);
+        String language = reducedOk && reduced.getLanguage() != null ? reduced.getLanguage() : mostCommonLanguage(partials);
+
+        String message = "Summarized " + chunkCount + " chunks";
+        if (partials.size() < chunkCount) {
+            message += " (" + (chunkCount - partials.size()) + " failed)";
+        }
+        if (!reducedOk) {
+            message += "; partial summaries concatenated";
+        }
+        return new AIService.AIProcessResult(summary, tags, language, true, message);
+    }
+
+    private List<String> split(String text) {
+        int budget = chunkTokens * CHARS_PER_TOKEN;
+        int overlap = Math.min(overlapTokens * CHARS_PER_TOKEN, budget / 4);
+        if (text.length() <= budget) {
+            return List.of(text);
+        }
+
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String paragraph : text.split("\\n\\s*\\n")) {
+            for (String piece : splitLong(paragraph.trim(), budget - overlap)) {
+                if (piece.isEmpty()) {
+                    continue;
+                }
+                if (current.length() > 0 && current.length() + piece.length() + 2 > budget) {
+                    chunks.add(current.toString());
+                    current = new StringBuilder(tail(current, overlap));
+                }
+                if (current.length() > 0) {
+                    current.append("\n\n");
+                }
+                current.append(piece);
+            }
+        }
+        if (current.length() > 0) {
+            chunks.add(current.toString());
+        }
+
+        if (chunks.size() > maxChunks) {
+            System.err.println("Document split into " + chunks.size() + " chunks, summarizing the first " + maxChunks);
+            return List.copyOf(chunks.subList(0, maxChunks));
+        }
+        return chunks;
+    }
+
+    private static String chunkTitle(String title, int index, int count) {
+        return title + " (" + (index + 1) + "/" + count + ")";
+    }
+
+    /**
+     * Cuts a paragraph longer than the limit at sentence ends where possible, else at whitespace.
+     */
+    private static List<String> splitLong(String paragraph, int limit) {
+        List<String> pieces = new ArrayList<>();
+        String rest = paragraph;
+        while (rest.length() > limit) {
+            int cut = Math.max(rest.lastIndexOf(". ", limit), Math.max(rest.lastIndexOf("? ", limit), rest.lastIndexOf("! ", limit)));
+            if (cut < limit / 2) {
+                cut = rest.lastIndexOf(' ', limit);
+            }
+            cut = cut < limit / 2 ? limit : cut + 1;
+            pieces.add(rest.substring(0, cut).trim());
+            rest = rest.substring(cut).trim();
+        }
+        pieces.add(rest);
+        return pieces;
+    }
+
+    private static String tail(CharSequence text, int length) {
+        if (length <= 0 || text.length() <= length) {
+            return length <= 0 ? "" : text.toString();
+        }
+        String tail = text.subSequence(text.length() - length, text.length()).toString();
+        int space = tail.indexOf(' ');
+        return space >= 0 ? tail.substring(space + 1) : tail;
+    }
+
+    private static String normalize(String text) {
+        return text.replace("\r", "")
+                .replaceAll("[ \\t\\x0B\\f]+", " ")
+                .replaceAll(" *\\n *", "\n")
+                .replaceAll("\\n{3,}", "\n\n")
+                .trim();
+    }
+
+    private static String truncate(String text, int maxChars) {
+        return text.length() <= maxChars ? text : text.substring(0, maxChars) + "...";
+    }
+
+    private static List<String> mergeTags(List<String> preferred, List<AIService.AIProcessResult> partials) {
+        Map<String, String> spelling = new LinkedHashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (AIService.AIProcessResult partial : partials) {
+            if (partial.getTags() == null) {
+                continue;
+            }
+            for (String tag : partial.getTags()) {
+                String key = tag.trim().toLowerCase();
+                if (!key.isEmpty()) {
+                    spelling.putIfAbsent(key, tag.trim());
+                    counts.merge(key, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<String> merged = new ArrayList<>();
+        if (preferred != null) {
+            for (String tag : preferred) {
+                if (merged.size() < MAX_TAGS && merged.stream().noneMatch(t -> t.equalsIgnoreCase(tag.trim()))) {
+                    merged.add(tag.trim());
+                }
+            }
+        }
+        spelling.keySet().stream()
+                .sorted(Comparator.comparing((String key) -> counts.get(key)).reversed())
+                .map(spelling::get)
+                .filter(tag -> merged.stream().noneMatch(t -> t.equalsIgnoreCase(tag)))
+                .limit(Math.max(0, MAX_TAGS - merged.size()))
+                .forEach(merged::add);
+        return merged;
+    }
+
+    private static String mostCommonLanguage(List<AIService.AIProcessResult> partials) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (AIService.AIProcessResult partial : partials) {
+            if (partial.getLanguage() != null) {
+                counts.merge(partial.getLanguage(), 1, Integer::sum);
+            }
+        }
+        return counts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,78 @@
+package com.knowledgehub.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive-failure circuit breaker fed by the outcomes of real calls.
+ *
+ * After {@code failureThreshold} failures in a row the circuit opens and calls are rejected
+ * without touching the network. While open, an external probe reports health; a healthy probe
+ * moves the circuit to half-open, where exactly one real call is let through as a trial and
+ * its outcome either closes the circuit again or re-opens it.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    public CircuitBreaker(String name, int failureThreshold) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+    }
+
+    public boolean allowRequest() {
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> trialInFlight.compareAndSet(false, true);
+        };
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        trialInFlight.set(false);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            System.out.println("Circuit " + name + " closed");
+        }
+    }
+
+    public void onFailure() {
+        boolean trialFailed = state.get() == State.HALF_OPEN;
+        trialInFlight.set(false);
+        if (trialFailed || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            if (state.getAndSet(State.OPEN) != State.OPEN) {
+                System.err.println("Circuit " + name + " opened after " + consecutiveFailures.get() + " consecutive failures");
+            }
+        }
+    }
+
+    /**
+     * The admitted call was shed before reaching the network, so it says nothing about health.
+     */
+    public void onNotAttempted() {
+        if (state.get() == State.HALF_OPEN) {
+            trialInFlight.set(false);
+        }
+    }
+
+    public void onProbe(boolean healthy) {
+        if (healthy && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            System.out.println("Circuit " + name + " half-open, next call is a trial");
+        }
+    }
+
+    public boolean isAvailable() {
+        return state.get() != State.OPEN;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+}
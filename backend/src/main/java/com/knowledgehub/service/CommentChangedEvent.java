@@ -0,0 +1,13 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.entity.Comment;
+
+/**
+ * Published after a comment is added, edited or removed.
+ */
+public record CommentChangedEvent(Comment comment, Type type) {
+
+    public enum Type {
+        ADDED, UPDATED, DELETED
+    }
+}
@@ -4,12 +4,28 @@ import com.knowledgehub.entity.Comment;
 import com.knowledgehub.entity.DocumentEntity;
 import com.knowledgehub.entity.User;
 import com.knowledgehub.repository.CommentRepository;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,17 +34,37 @@ public class CommentService {
     @Autowired
     private CommentRepository commentRepository;
     
+    @Autowired
+    private DocumentService documentService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${comments.reconcile-settle-ms:2000}")
+    private long reconcileSettleMs;
+    
+    private final SingleFlight<String, Page<Comment>> commentPageFlights = new SingleFlight<>();
+    
     public Comment addComment(String content, User author, DocumentEntity document) {
         Comment comment = new Comment();
         comment.setContent(content);
         comment.setAuthor(author);
         comment.setDocument(document);
         
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        forgetCommentPages(document.getId());
+        documentService.adjustCommentCount(document.getId(), 1);
+        eventPublisher.publishEvent(new CommentChangedEvent(saved, CommentChangedEvent.Type.ADDED));
+        return saved;
     }
     
     public Page<Comment> getDocumentComments(DocumentEntity document, Pageable pageable) {
-        return commentRepository.findByDocumentOrderByCreatedAtDesc(document, pageable);
+        String key = document.getId() + "|" + pageable.getPageNumber() + "|" + pageable.getPageSize();
+        return commentPageFlights.execute(key,
+                () -> commentRepository.findByDocumentOrderByCreatedAtDesc(document, pageable));
     }
     
     public Optional<Comment> findById(String id) {
@@ -47,7 +83,10 @@ public class CommentService {
         comment.setContent(content);
         comment.setUpdatedAt(LocalDateTime.now());
         
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        forgetCommentPages(saved.getDocument().getId());
+        eventPublisher.publishEvent(new CommentChangedEvent(saved, CommentChangedEvent.Type.UPDATED));
+        return saved;
     }
     
     public void deleteComment(String id, User user) {
@@ -60,9 +99,94 @@ public class CommentService {
         }
         
         commentRepository.delete(comment);
+        forgetCommentPages(comment.getDocument().getId());
+        documentService.adjustCommentCount(comment.getDocument().getId(), -1);
+        eventPublisher.publishEvent(new CommentChangedEvent(comment, CommentChangedEvent.Type.DELETED));
+    }
+    
+    private void forgetCommentPages(String documentId) {
+        String prefix = documentId + "|";
+        commentPageFlights.forgetIf(key -> key.startsWith(prefix));
     }
     
     public long getCommentCount(DocumentEntity document) {
-        return commentRepository.countByDocument(document);
+        return document.getCommentCount();
+    }
+    
+    /**
+     * Recounts comments per document and repairs any drifted commentCount values.
+     * Returns the number of documents that were corrected.
+     *
+     * Stored counts are read before comments are counted, and each fix only applies while the
+     * stored count is still the value read. Adding or deleting a comment is two writes, though:
+     * the comment is saved or removed, then the count adjusted. A run that falls between them
+     * counts the comment and the adjustment lands on top, so corrected documents are counted
+     * again after {@code comments.reconcile-settle-ms} to undo that. A comment racing with the
+     * second pass can still leave a count off by one until the next run.
+     */
+    @Scheduled(cron = "${comments.reconcile-cron:0 30 3 * * *}")
+    public int reconcileCommentCounts() {
+        List<Object> corrected = new ArrayList<>();
+        int modified = correctCounts(new Document(), corrected);
+        if (corrected.isEmpty()) {
+            return 0;
+        }
+        try {
+            Thread.sleep(reconcileSettleMs);
+            correctCounts(new Document("_id", new Document("$in", corrected)), new ArrayList<>());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            documentService.commentCountsCorrected(corrected.stream().map(String::valueOf).toList());
+        }
+        return modified;
+    }
+    
+    /**
+     * Sets commentCount to the number of comments on each document matching the filter, skipping
+     * documents whose count changed since it was read. Adds the ids it tried to fix to corrected
+     * and returns how many were actually modified.
+     */
+    private int correctCounts(Document documentFilter, List<Object> corrected) {
+        Map<Object, Integer> storedCounts = new HashMap<>();
+        for (Document document : mongoTemplate.getCollection("documents").find(documentFilter)
+                .projection(Projections.include("_id", "commentCount"))
+                .batchSize(5000)) {
+            storedCounts.put(document.get("_id"), document.getInteger("commentCount", 0));
+        }
+        
+        // The document reference is a DBRef; its $id cannot be named in a field path
+        Document commentFilter = documentFilter.isEmpty()
+                ? new Document()
+                : new Document("document.$id", new Document("$in", new ArrayList<>(storedCounts.keySet())));
+        Map<String, Integer> actualCounts = new HashMap<>();
+        for (Document group : mongoTemplate.getCollection("comments").aggregate(List.of(
+                        Aggregates.match(commentFilter),
+                        Aggregates.group(new Document("$arrayElemAt", List.of(new Document("$objectToArray", "$document"), 1)),
+                                Accumulators.sum("count", 1))))
+                .allowDiskUse(true)) {
+            Document reference = group.get("_id", Document.class);
+            if (reference != null) {
+                actualCounts.put(String.valueOf(reference.get("v")), group.getInteger("count"));
+            }
+        }
+        
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DocumentEntity.class);
+        int before = corrected.size();
+        for (Map.Entry<Object, Integer> stored : storedCounts.entrySet()) {
+            int actual = actualCounts.getOrDefault(String.valueOf(stored.getKey()), 0);
+            if (stored.getValue() != actual) {
+                Criteria unchanged = stored.getValue() == 0
+                        ? new Criteria().orOperator(Criteria.where("commentCount").is(0), Criteria.where("commentCount").exists(false))
+                        : Criteria.where("commentCount").is(stored.getValue());
+                updates.updateOne(Query.query(Criteria.where("_id").is(stored.getKey()).andOperator(unchanged)),
+                        new Update().set("commentCount", actual));
+                corrected.add(stored.getKey());
+            }
+        }
+        if (corrected.size() == before) {
+            return 0;
+        }
+        return updates.execute().getModifiedCount();
     }
 }
@@ -0,0 +1,111 @@
+package com.knowledgehub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knowledgehub.dto.DocumentDto;
+import com.knowledgehub.dto.JsonFragment;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the user-independent dashboard sections ("newest" and "popular") as an immutable,
+ * pre-serialized snapshot. Readers only do a volatile read; rebuilds run on a single background
+ * thread after relevant writes or on an interval, and the previous snapshot keeps being served
+ * while a rebuild is in flight or if it fails.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private static final int SECTION_SIZE = 5;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // Cold start: nothing to serve yet, so build on the caller's thread once
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = buildSnapshot();
+            }
+            return snapshot;
+        }
+    }
+
+    @EventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onDocumentsImported(DocumentsImportedEvent event) {
+        requestRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.snapshot.refresh-ms:30000}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    public void requestRebuild() {
+        // Writes arriving while a rebuild is queued collapse into that rebuild
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    snapshot = buildSnapshot();
+                } catch (Exception e) {
+                    System.err.println("Dashboard snapshot rebuild failed, serving previous snapshot: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    private Snapshot buildSnapshot() {
+        Pageable pageable = PageRequest.of(0, SECTION_SIZE);
+        List<DocumentDto> newest = documentService.getRecentDocuments(pageable).map(DocumentDto::new).getContent();
+        List<DocumentDto> popular = documentService.getPopularDocuments(pageable).map(DocumentDto::new).getContent();
+        try {
+            return new Snapshot(
+                    JsonFragment.of(objectMapper.writeValueAsBytes(newest)),
+                    JsonFragment.of(objectMapper.writeValueAsBytes(popular)),
+                    LocalDateTime.now());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize dashboard snapshot: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public record Snapshot(JsonFragment newestDocuments, JsonFragment popularDocuments, LocalDateTime builtAt) {
+    }
+}
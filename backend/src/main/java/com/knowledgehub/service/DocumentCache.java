@@ -0,0 +1,138 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.entity.DocumentEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-heap LRU cache of documents by id, bounded by an estimate of retained bytes rather than
+ * entry count. Writers invalidate entries explicitly; loads that overlap an invalidation are
+ * not cached, so a read after an update on this node never sees the old document. Entries
+ * also expire after a while because owner details are embedded and not tracked. Documents are
+ * copied on the way in and out, so callers are free to modify what they get.
+ */
+@Component
+public class DocumentCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    @Value("${document-cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${document-cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long totalBytes;
+
+    public Optional<DocumentEntity> get(String id) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && now - entry.loadedAt() < TimeUnit.MILLISECONDS.toNanos(ttlMs)) {
+                hits.incrementAndGet();
+                return Optional.of(new DocumentEntity(entry.document()));
+            }
+            if (entry != null) {
+                removeEntry(id);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Marks the start of a load; pass the returned stamp to {@link #putIfUnchanged}.
+     */
+    public long loadStamp() {
+        return invalidations.get();
+    }
+
+    public void putIfUnchanged(DocumentEntity document, long loadStamp) {
+        synchronized (entries) {
+            if (invalidations.get() == loadStamp) {
+                putEntry(document);
+            }
+        }
+    }
+
+    public void put(DocumentEntity document) {
+        synchronized (entries) {
+            putEntry(document);
+        }
+    }
+
+    public void invalidate(String id) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            removeEntry(id);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void putEntry(DocumentEntity document) {
+        removeEntry(document.getId());
+        Entry entry = new Entry(new DocumentEntity(document), estimateBytes(document), System.nanoTime());
+        entries.put(document.getId(), entry);
+        totalBytes += entry.bytes();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void removeEntry(String id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            totalBytes -= removed.bytes();
+        }
+    }
+
+    private static long estimateBytes(DocumentEntity document) {
+        long chars = length(document.getTitle()) + length(document.getDescription())
+                + length(document.getSummary()) + length(document.getFileName())
+                + length(document.getFilePath()) + length(document.getFileType());
+        List<String> tags = document.getTags();
+        if (tags != null) {
+            for (String tag : tags) {
+                chars += length(tag) + 24;
+            }
+        }
+        return ENTRY_OVERHEAD_BYTES + chars * 2;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private record Entry(DocumentEntity document, long bytes, long loadedAt) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.knowledgehub.service;
+
+/**
+ * Published after a write that changes a document as other readers see it.
+ */
+public record DocumentChangedEvent(String documentId, Type type) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
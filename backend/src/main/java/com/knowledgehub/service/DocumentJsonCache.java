@@ -0,0 +1,105 @@
+package com.knowledgehub.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knowledgehub.dto.DocumentDto;
+import com.knowledgehub.dto.JsonFragment;
+import com.knowledgehub.entity.DocumentEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches each document's serialized {@link DocumentDto} JSON in direct buffers, keyed by id and
+ * checked against the fields that change between writes. List endpoints return the cached
+ * fragments and Jackson splices them into the page envelope, so hot documents are serialized
+ * once per version instead of once per response, with no per-response garbage for the bytes.
+ */
+@Component
+public class DocumentJsonCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${document-json-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long totalBytes;
+
+    public JsonFragment fragmentFor(DocumentEntity document) {
+        Version version = Version.of(document);
+        synchronized (entries) {
+            Entry entry = entries.get(document.getId());
+            if (entry != null && entry.version().equals(version)) {
+                hits.incrementAndGet();
+                return entry.fragment();
+            }
+        }
+        misses.incrementAndGet();
+
+        JsonFragment fragment = encode(document);
+        synchronized (entries) {
+            Entry previous = entries.put(document.getId(), new Entry(version, fragment));
+            if (previous != null) {
+                totalBytes -= previous.fragment().byteLength();
+            }
+            totalBytes += fragment.byteLength();
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().fragment().byteLength();
+                eldest.remove();
+            }
+        }
+        return fragment;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private JsonFragment encode(DocumentEntity document) {
+        try {
+            return JsonFragment.of(objectMapper.writeValueAsBytes(new DocumentDto(document)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize document: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The fields that can change without the document id changing. Edits bump updatedAt;
+     * counters and rating aggregates are updated in place, so they are compared directly.
+     */
+    private record Version(LocalDateTime updatedAt, int viewCount, double averageRating,
+                           int totalRatings, int commentCount, String ownerName,
+                           DocumentEntity.EnrichmentStatus enrichmentStatus) {
+
+        private static Version of(DocumentEntity document) {
+            return new Version(document.getUpdatedAt(), document.getViewCount(), document.getAverageRating(),
+                    document.getTotalRatings(), document.getCommentCount(),
+                    document.getOwner() != null ? document.getOwner().getFullName() : null,
+                    document.getEnrichmentStatus());
+        }
+    }
+
+    private record Entry(Version version, JsonFragment fragment) {
+    }
+}
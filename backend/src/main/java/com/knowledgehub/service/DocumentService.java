@@ -3,10 +3,23 @@ package com.knowledgehub.service;
 import com.knowledgehub.entity.DocumentEntity;
 import com.knowledgehub.entity.User;
 import com.knowledgehub.repository.DocumentRepository;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -14,10 +27,18 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Service
 public class DocumentService {
@@ -25,10 +46,33 @@ public class DocumentService {
     @Autowired
     private DocumentRepository documentRepository;
     
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private SearchResultCache searchResultCache;
+    
+    @Autowired
+    private DocumentCache documentCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     private static final String UPLOAD_DIR = "./uploads";
+    public static final int MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    public static final String PLACEHOLDER_DESCRIPTION_PREFIX = "Tài liệu được upload bởi ";
+    
+    private final SingleFlight<String, Optional<DocumentEntity>> findByIdFlights = new SingleFlight<>();
+    private final SingleFlight<String, Page<DocumentEntity>> searchFlights = new SingleFlight<>();
     
     public DocumentEntity uploadDocument(MultipartFile file, String title, String description, 
                                  List<String> tags, DocumentEntity.Visibility visibility, User owner) {
+        return uploadDocument(file, title, description, tags, visibility, owner, DocumentEntity.EnrichmentStatus.NONE);
+    }
+    
+    public DocumentEntity uploadDocument(MultipartFile file, String title, String description, 
+                                 List<String> tags, DocumentEntity.Visibility visibility, User owner,
+                                 DocumentEntity.EnrichmentStatus enrichmentStatus) {
         try {
             // Validate file
             validateFile(file);
@@ -60,20 +104,133 @@ public class DocumentService {
             document.setVisibility(visibility);
             document.setOwner(owner);
             document.setSummary(generateSummary(description)); // Auto-generate summary
+            document.setEnrichmentStatus(enrichmentStatus);
             
-            return documentRepository.save(document);
+            DocumentEntity saved = documentRepository.save(document);
+            documentChanged(saved.getId(), DocumentChangedEvent.Type.CREATED);
+            return saved;
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload file: " + e.getMessage());
         }
     }
     
+    /**
+     * Validates and stores one file of a bulk import and returns the document unsaved, with its
+     * ID already assigned so it can be referenced before {@link #insertAll} writes the batch.
+     */
+    public DocumentEntity prepareUpload(String fileName, String contentType, byte[] content, String title,
+                                        String description, List<String> tags, DocumentEntity.Visibility visibility,
+                                        User owner, DocumentEntity.EnrichmentStatus enrichmentStatus) {
+        try {
+            validateFile(content.length, contentType);
+            
+            Path uploadPath = Paths.get(UPLOAD_DIR);
+            if (!Files.exists(uploadPath)) {
+                Files.createDirectories(uploadPath);
+            }
+            Path filePath = uploadPath.resolve(UUID.randomUUID().toString() + getFileExtension(fileName));
+            Files.write(filePath, content, StandardOpenOption.CREATE_NEW);
+            
+            DocumentEntity document = new DocumentEntity();
+            document.setId(new ObjectId().toHexString());
+            document.setTitle(title);
+            document.setDescription(description);
+            document.setFileName(fileName);
+            document.setFilePath(filePath.toString());
+            document.setFileType(contentType);
+            document.setFileSize(content.length);
+            document.setTags(tags);
+            document.setVisibility(visibility);
+            document.setOwner(owner);
+            document.setSummary(generateSummary(description));
+            document.setEnrichmentStatus(enrichmentStatus);
+            return document;
+            
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Writes prepared documents with one insertMany. Caches and listeners are notified once
+     * for the whole batch rather than per document.
+     */
+    public void insertAll(List<DocumentEntity> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.insert(documents, DocumentEntity.class);
+        } finally {
+            // An ordered insertMany can fail part-way, leaving a prefix of the batch written
+            searchResultCache.invalidateAll();
+        }
+        eventPublisher.publishEvent(new DocumentsImportedEvent(documents.stream().map(DocumentEntity::getId).toList()));
+    }
+    
+    /**
+     * Which of the given IDs exist; used to sort out a batch insert that failed part-way.
+     */
+    public Set<String> findExistingIds(List<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids.stream().map(this::toObjectId).toList()));
+        query.fields().include("_id");
+        Set<String> existing = new HashSet<>();
+        for (Document document : mongoTemplate.find(query, Document.class, "documents")) {
+            existing.add(String.valueOf(document.get("_id")));
+        }
+        return existing;
+    }
+    
     public Optional<DocumentEntity> findById(String id) {
-        return documentRepository.findById(id);
+        Optional<DocumentEntity> cached = documentCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        // Callers sharing one load each get their own copy
+        return findByIdFlights.execute(id, () -> {
+            long loadStamp = documentCache.loadStamp();
+            Optional<DocumentEntity> document = documentRepository.findById(id);
+            document.ifPresent(loaded -> documentCache.putIfUnchanged(loaded, loadStamp));
+            return document;
+        }).map(DocumentEntity::new);
     }
     
     public Page<DocumentEntity> searchDocuments(String searchText, List<String> tags, 
                                         DocumentEntity.Visibility visibility, Pageable pageable) {
+        return searchDocuments(searchText, tags, visibility, pageable, null);
+    }
+    
+    /**
+     * Like {@link #searchDocuments(String, List, DocumentEntity.Visibility, Pageable)}, but when
+     * {@code projection} names entity fields, a database query loads only those fields. That
+     * holds on a search-cache hit too; only documents already in the document cache come back whole.
+     */
+    public Page<DocumentEntity> searchDocuments(String searchText, List<String> tags, 
+                                        DocumentEntity.Visibility visibility, Pageable pageable,
+                                        Set<String> projection) {
+        String cacheKey = SearchResultCache.key(searchText, tags, visibility, pageable);
+        Optional<SearchResultCache.Entry> cached = searchResultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            return loadInOrder(cached.get().documentIds(), pageable, cached.get().total(), projection);
+        }
+        
+        // Keyed by generation so a search started before a write is never shared after it
+        long generation = searchResultCache.currentGeneration();
+        String flightKey = cacheKey + "@" + generation + (projection != null ? "|fields=" + projection : "");
+        return searchFlights.execute(flightKey, () -> {
+            Page<DocumentEntity> result = projection != null
+                    ? findPage(searchQuery(searchText, tags, visibility), pageable, projection)
+                    : runSearch(searchText, tags, visibility, pageable);
+            searchResultCache.put(cacheKey, generation,
+                    result.getContent().stream().map(DocumentEntity::getId).toList(),
+                    result.getTotalElements());
+            return result;
+        });
+    }
+    
+    private Page<DocumentEntity> runSearch(String searchText, List<String> tags, 
+                                           DocumentEntity.Visibility visibility, Pageable pageable) {
         if (searchText != null && !searchText.trim().isEmpty()) {
             return documentRepository.findByTextSearch(searchText, pageable);
         } else if (tags != null && !tags.isEmpty()) {
@@ -85,18 +242,152 @@ public class DocumentService {
         }
     }
     
+    private Query searchQuery(String searchText, List<String> tags, DocumentEntity.Visibility visibility) {
+        if (searchText != null && !searchText.trim().isEmpty()) {
+            return TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(searchText));
+        } else if (tags != null && !tags.isEmpty()) {
+            return Query.query(Criteria.where("tags").in(tags));
+        } else if (visibility != null) {
+            return Query.query(Criteria.where("visibility").is(visibility.name()));
+        } else {
+            return new Query();
+        }
+    }
+    
+    /**
+     * Runs a paged query that loads only the projected entity fields. Documents loaded this way
+     * are partial, so they are never put in the document cache.
+     */
+    private Page<DocumentEntity> findPage(Query query, Pageable pageable, Set<String> projection) {
+        long total = mongoTemplate.count(query, "documents");
+        query.with(pageable);
+        projection.forEach(field -> query.fields().include(field));
+        return new PageImpl<>(readWithOwners(query), pageable, total);
+    }
+    
+    private Page<DocumentEntity> loadInOrder(List<String> ids, Pageable pageable, long total, Set<String> projection) {
+        return new PageImpl<>(findAllByIds(ids, projection), pageable, total);
+    }
+    
+    /**
+     * Loads documents in the given order, skipping unknown ids. Cached documents are reused;
+     * the rest come from one $in query with their owners resolved in one more query.
+     */
+    public List<DocumentEntity> findAllByIds(List<String> ids) {
+        return findAllByIds(ids, null);
+    }
+    
+    /**
+     * Like {@link #findAllByIds(List)}, but when {@code projection} names entity fields the $in
+     * query loads only those fields, and the partial documents it returns are not cached.
+     */
+    public List<DocumentEntity> findAllByIds(List<String> ids, Set<String> projection) {
+        Map<String, DocumentEntity> byId = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            Optional<DocumentEntity> cached = documentCache.get(id);
+            if (cached.isPresent()) {
+                byId.put(id, cached.get());
+            } else {
+                missing.add(id);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            long loadStamp = documentCache.loadStamp();
+            Query query = Query.query(Criteria.where("_id").in(missing.stream().map(this::toObjectId).toList()));
+            if (projection != null) {
+                projection.forEach(field -> query.fields().include(field));
+            }
+            for (DocumentEntity document : readWithOwners(query)) {
+                byId.put(document.getId(), document);
+                if (projection == null) {
+                    documentCache.putIfUnchanged(document, loadStamp);
+                }
+            }
+        }
+        
+        List<DocumentEntity> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            DocumentEntity document = byId.get(id);
+            if (document != null) {
+                ordered.add(document);
+            }
+        }
+        return ordered;
+    }
+    
+    private List<DocumentEntity> readWithOwners(Query query) {
+        // Read raw documents so the owner DBRefs can be resolved together instead of one by one
+        List<Document> rawDocuments = mongoTemplate.find(query, Document.class, "documents");
+        
+        Set<Object> ownerIds = new HashSet<>();
+        for (Document raw : rawDocuments) {
+            DBRef owner = raw.get("owner", DBRef.class);
+            if (owner != null) {
+                ownerIds.add(owner.getId());
+            }
+        }
+        Map<String, User> owners = new HashMap<>();
+        if (!ownerIds.isEmpty()) {
+            for (User owner : mongoTemplate.find(Query.query(Criteria.where("_id").in(ownerIds)), User.class)) {
+                owners.put(owner.getId(), owner);
+            }
+        }
+        
+        List<DocumentEntity> documents = new ArrayList<>(rawDocuments.size());
+        for (Document raw : rawDocuments) {
+            DBRef owner = (DBRef) raw.remove("owner");
+            DocumentEntity document = mongoTemplate.getConverter().read(DocumentEntity.class, raw);
+            if (owner != null) {
+                document.setOwner(owners.get(String.valueOf(owner.getId())));
+            }
+            documents.add(document);
+        }
+        return documents;
+    }
+    
+    private Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+    
     public Page<DocumentEntity> getRecentDocuments(Pageable pageable) {
         return documentRepository.findByOrderByCreatedAtDesc(pageable);
     }
     
+    public Page<DocumentEntity> getRecentDocuments(Pageable pageable, Set<String> projection) {
+        if (projection == null) {
+            return getRecentDocuments(pageable);
+        }
+        return findPage(new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")), pageable, projection);
+    }
+    
     public Page<DocumentEntity> getPopularDocuments(Pageable pageable) {
         return documentRepository.findPopularDocuments(3.0, 10, pageable);
     }
     
+    public Page<DocumentEntity> getPopularDocuments(Pageable pageable, Set<String> projection) {
+        if (projection == null) {
+            return getPopularDocuments(pageable);
+        }
+        Criteria popular = new Criteria().orOperator(
+                Criteria.where("averageRating").gte(3.0),
+                Criteria.where("viewCount").gte(10));
+        return findPage(Query.query(popular), pageable, projection);
+    }
+    
     public Page<DocumentEntity> getUserDocuments(User user, Pageable pageable) {
         return documentRepository.findByOwner(user, pageable);
     }
     
+    public Page<DocumentEntity> getUserDocuments(User user, Pageable pageable, Set<String> projection) {
+        if (projection == null) {
+            return getUserDocuments(user, pageable);
+        }
+        DBRef owner = new DBRef("users", toObjectId(user.getId()));
+        return findPage(Query.query(Criteria.where("owner").is(owner)), pageable, projection);
+    }
+    
     public DocumentEntity updateDocument(String id, String title, String description, 
                                  List<String> tags, DocumentEntity.Visibility visibility, User user) {
         DocumentEntity document = documentRepository.findById(id)
@@ -113,7 +404,9 @@ public class DocumentService {
         document.setVisibility(visibility);
         document.setUpdatedAt(LocalDateTime.now());
         
-        return documentRepository.save(document);
+        DocumentEntity saved = documentRepository.save(document);
+        documentChanged(saved.getId(), DocumentChangedEvent.Type.UPDATED);
+        return saved;
     }
     
     public void deleteDocument(String id, User user) {
@@ -133,26 +426,147 @@ public class DocumentService {
         }
         
         documentRepository.delete(document);
+        documentChanged(document.getId(), DocumentChangedEvent.Type.DELETED);
+    }
+    
+    private void documentChanged(String documentId, DocumentChangedEvent.Type type) {
+        documentCache.invalidate(documentId);
+        findByIdFlights.forget(documentId);
+        searchResultCache.invalidateAll();
+        eventPublisher.publishEvent(new DocumentChangedEvent(documentId, type));
     }
     
     public DocumentEntity incrementViewCount(String id) {
-        DocumentEntity document = documentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("DocumentEntity not found"));
+        long loadStamp = documentCache.loadStamp();
+        DocumentEntity document = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id)),
+                new Update().inc("viewCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                DocumentEntity.class);
+        if (document == null) {
+            throw new RuntimeException("DocumentEntity not found");
+        }
+        documentCache.putIfUnchanged(document, loadStamp);
+        return document;
+    }
+    
+    public void adjustCommentCount(String id, int delta) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(id)),
+                new Update().inc("commentCount", delta),
+                DocumentEntity.class);
+        documentCache.invalidate(id);
+        findByIdFlights.forget(id);
+    }
+    
+    /**
+     * Drops cached copies of documents whose comment counts were rewritten by the reconciler.
+     */
+    public void commentCountsCorrected(Collection<String> ids) {
+        for (String id : ids) {
+            documentCache.invalidate(id);
+            findByIdFlights.forget(id);
+        }
+        searchResultCache.invalidateAll();
+        ids.forEach(id -> eventPublisher.publishEvent(new DocumentChangedEvent(id, DocumentChangedEvent.Type.UPDATED)));
+    }
+    
+    public void updateRatingSummary(String id, double averageRating, int totalRatings) {
+        // Only touch the rating fields so concurrent counter updates are not overwritten
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(id)),
+                new Update()
+                        .set("averageRating", averageRating)
+                        .set("totalRatings", totalRatings),
+                DocumentEntity.class);
+        documentChanged(id, DocumentChangedEvent.Type.UPDATED);
+    }
+    
+    /**
+     * Writes AI results onto a pending document. The description is only replaced while it is
+     * still the upload placeholder, and tags only while none were given, so user edits made in
+     * the meantime win. Everything goes in one pipeline update whose $cond checks run against
+     * what is stored now, not against the copy loaded before the AI call, so no reader can see
+     * the new updatedAt with the old description or tags. Guarded on the status, so applying the
+     * same result twice is a no-op.
+     */
+    public boolean applyEnrichment(DocumentEntity document, String summary, List<String> tags) {
+        Document set = new Document("enrichmentStatus", DocumentEntity.EnrichmentStatus.COMPLETED.name())
+                .append("updatedAt", mongoTemplate.getConverter().convertToMongoType(LocalDateTime.now()));
+        if (summary != null && !summary.trim().isEmpty()) {
+            set.append("summary", new Document("$literal", generateSummary(summary)));
+            Document isPlaceholder = new Document("$regexMatch", new Document("input", new Document("$ifNull", List.of("$description", "")))
+                    .append("regex", "^(?:" + Pattern.quote(PLACEHOLDER_DESCRIPTION_PREFIX) + "|\\s*$)"));
+            set.append("description", new Document("$cond", List.of(isPlaceholder, new Document("$literal", summary), "$description")));
+        }
+        if (tags != null && !tags.isEmpty()) {
+            Document hasNoTags = new Document("$eq", List.of(new Document("$size", new Document("$ifNull", List.of("$tags", List.of()))), 0));
+            set.append("tags", new Document("$cond", List.of(hasNoTags, new Document("$literal", tags), "$tags")));
+        }
         
-        document.setViewCount(document.getViewCount() + 1);
-        return documentRepository.save(document);
+        boolean applied = mongoTemplate.getCollection(mongoTemplate.getCollectionName(DocumentEntity.class)).updateOne(
+                new Document("_id", toObjectId(document.getId()))
+                        .append("enrichmentStatus", new Document("$ne", DocumentEntity.EnrichmentStatus.COMPLETED.name())),
+                List.of(new Document("$set", set))).getModifiedCount() > 0;
+        if (applied) {
+            documentChanged(document.getId(), DocumentChangedEvent.Type.UPDATED);
+        }
+        return applied;
+    }
+    
+    public void setEnrichmentStatus(String id, DocumentEntity.EnrichmentStatus status) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(toObjectId(id))),
+                new Update().set("enrichmentStatus", status),
+                DocumentEntity.class);
+        documentChanged(id, DocumentChangedEvent.Type.UPDATED);
+    }
+    
+    /**
+     * Marks an enrichment as failed, unless another attempt completed it in the meantime.
+     */
+    public void markEnrichmentFailed(String id) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(toObjectId(id))
+                        .and("enrichmentStatus").ne(DocumentEntity.EnrichmentStatus.COMPLETED)),
+                new Update().set("enrichmentStatus", DocumentEntity.EnrichmentStatus.FAILED),
+                DocumentEntity.class);
+        documentChanged(id, DocumentChangedEvent.Type.UPDATED);
+    }
+    
+    /**
+     * Marks an enrichment as queued, unless a worker already got to it and completed it.
+     */
+    public void markEnrichmentPending(String id) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(toObjectId(id))
+                        .and("enrichmentStatus").ne(DocumentEntity.EnrichmentStatus.COMPLETED)),
+                new Update().set("enrichmentStatus", DocumentEntity.EnrichmentStatus.PENDING),
+                DocumentEntity.class);
+        documentChanged(id, DocumentChangedEvent.Type.UPDATED);
+    }
+    
+    public static String placeholderDescription(User owner) {
+        return PLACEHOLDER_DESCRIPTION_PREFIX + owner.getFullName();
+    }
+    
+    public static boolean isPlaceholderDescription(String description) {
+        return description == null || description.trim().isEmpty() || description.startsWith(PLACEHOLDER_DESCRIPTION_PREFIX);
     }
     
     private void validateFile(MultipartFile file) {
-        if (file.isEmpty()) {
+        validateFile(file.getSize(), file.getContentType());
+    }
+    
+    private void validateFile(long size, String contentType) {
+        if (size == 0) {
             throw new RuntimeException("File is empty");
         }
         
-        if (file.getSize() > 10 * 1024 * 1024) { // 10MB
+        if (size > MAX_FILE_SIZE) {
             throw new RuntimeException("File size exceeds 10MB limit");
         }
         
-        String contentType = file.getContentType();
         if (contentType == null || !isAllowedFileType(contentType)) {
             throw new RuntimeException("File type not allowed");
         }
@@ -181,6 +595,8 @@ public class DocumentService {
     }
     
     public DocumentEntity saveDocument(DocumentEntity document) {
-        return documentRepository.save(document);
+        DocumentEntity saved = documentRepository.save(document);
+        documentChanged(saved.getId(), DocumentChangedEvent.Type.UPDATED);
+        return saved;
     }
 }
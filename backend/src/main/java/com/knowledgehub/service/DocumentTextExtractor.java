@@ -0,0 +1,51 @@
+package com.knowledgehub.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Pulls plain text out of stored uploads. Only PDF and DOCX are handled here; for anything else
+ * (legacy .doc, images) the result is empty and callers send the raw file to the AI service.
+ */
+@Component
+public class DocumentTextExtractor {
+
+    public Optional<String> extract(Path path, String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        try {
+            String text = switch (contentType) {
+                case "application/pdf" -> extractPdf(path);
+                case "application/vnd.openxmlformats-officedocument.wordprocessingml.document" -> extractDocx(path);
+                default -> null;
+            };
+            return text == null || text.isBlank() ? Optional.empty() : Optional.of(text);
+        } catch (Exception e) {
+            System.err.println("Text extraction failed for " + path + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String extractPdf(Path path) throws Exception {
+        try (PDDocument document = Loader.loadPDF(path.toFile())) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    private String extractDocx(Path path) throws Exception {
+        try (InputStream in = Files.newInputStream(path);
+             XWPFWordExtractor extractor = new XWPFWordExtractor(new XWPFDocument(in))) {
+            return extractor.getText();
+        }
+    }
+}
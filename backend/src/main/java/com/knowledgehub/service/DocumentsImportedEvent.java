@@ -0,0 +1,10 @@
+package com.knowledgehub.service;
+
+import java.util.List;
+
+/**
+ * Published once per batch of documents created together by a bulk import, in place of one
+ * {@link DocumentChangedEvent} per document.
+ */
+public record DocumentsImportedEvent(List<String> documentIds) {
+}
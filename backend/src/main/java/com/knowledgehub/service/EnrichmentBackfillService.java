@@ -0,0 +1,237 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.entity.BackfillCheckpoint;
+import com.knowledgehub.entity.DocumentEntity;
+import com.knowledgehub.entity.EnrichmentJob;
+import com.knowledgehub.repository.EnrichmentJobRepository;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Admin-triggered AI enrichment of documents that still carry the upload placeholder
+ * description (uploaded with AI off, or while the AI service was down).
+ *
+ * Candidates are streamed by ascending id from a Mongo cursor and handed to the enrichment
+ * queue, but only while fewer than {@code backfill.ai-share} of the enrichment workers' capacity
+ * is taken by backfill jobs, and only while the AI circuit is closed; otherwise the scan blocks.
+ * That keeps uploads' own enrichment jobs near the front of the queue. Progress is checkpointed
+ * by last enqueued id, so a restart, pause or dead cursor resumes where it left off; enqueued
+ * documents are PENDING and drop out of the candidate filter, so overlap is harmless.
+ */
+@Service
+public class EnrichmentBackfillService {
+
+    private static final String CHECKPOINT_ID = "ai-enrichment-backfill";
+    private static final List<EnrichmentJob.Status> IN_FLIGHT = List.of(EnrichmentJob.Status.QUEUED, EnrichmentJob.Status.RUNNING);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private EnrichmentJobService enrichmentJobService;
+
+    @Autowired
+    private EnrichmentJobRepository enrichmentJobRepository;
+
+    @Autowired
+    private AIService aiService;
+
+    @Value("${enrichment.workers:2}")
+    private int enrichmentWorkers;
+
+    @Value("${backfill.ai-share:0.5}")
+    private double aiShare;
+
+    @Value("${backfill.poll-ms:1000}")
+    private long pollMs;
+
+    @Value("${backfill.checkpoint-every:50}")
+    private int checkpointEvery;
+
+    private Thread worker;
+    private volatile boolean stopRequested;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        BackfillCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, BackfillCheckpoint.class);
+        if (checkpoint != null && checkpoint.getState() == BackfillCheckpoint.State.RUNNING) {
+            System.out.println("Resuming AI backfill after document " + checkpoint.getLastDocumentId());
+            start(false);
+        }
+    }
+
+    public synchronized BackfillCheckpoint start(boolean restart) {
+        if (worker != null && worker.isAlive()) {
+            if (restart) {
+                throw new RuntimeException("Backfill is running; pause it before restarting");
+            }
+            return getStatus();
+        }
+
+        BackfillCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, BackfillCheckpoint.class);
+        if (checkpoint == null || restart) {
+            checkpoint = new BackfillCheckpoint(CHECKPOINT_ID);
+        }
+        checkpoint.setState(BackfillCheckpoint.State.RUNNING);
+        checkpoint.setLastError(null);
+        save(checkpoint);
+
+        stopRequested = false;
+        BackfillCheckpoint initial = checkpoint;
+        worker = Thread.ofVirtual().name("ai-backfill").start(() -> run(initial));
+        return checkpoint;
+    }
+
+    /**
+     * Gets the backfill going over newly imported documents unless an admin paused it. Their IDs
+     * sort after any checkpoint, so resuming a completed scan picks up exactly the new ones.
+     * Returns whether the backfill is running.
+     */
+    public synchronized boolean startUnlessPaused() {
+        BackfillCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, BackfillCheckpoint.class);
+        if (checkpoint != null && checkpoint.getState() == BackfillCheckpoint.State.PAUSED) {
+            return false;
+        }
+        start(false);
+        return true;
+    }
+
+    /**
+     * Asks the scan to stop; the worker records PAUSED together with its final checkpoint.
+     */
+    public synchronized BackfillCheckpoint pause() {
+        stopRequested = true;
+        if (worker != null) {
+            try {
+                worker.join(pollMs * 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return getStatus();
+    }
+
+    public BackfillCheckpoint getStatus() {
+        BackfillCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_ID, BackfillCheckpoint.class);
+        return checkpoint != null ? checkpoint : new BackfillCheckpoint(CHECKPOINT_ID);
+    }
+
+    private void run(BackfillCheckpoint checkpoint) {
+        while (!stopRequested) {
+            try {
+                if (scan(checkpoint)) {
+                    checkpoint.setState(BackfillCheckpoint.State.COMPLETED);
+                    save(checkpoint);
+                    System.out.println("AI backfill completed, " + checkpoint.getEnqueued() + " documents enqueued");
+                    return;
+                }
+            } catch (MongoException e) {
+                // Usually the cursor timed out while blocked on capacity; reopen from the checkpoint
+                checkpoint.setLastError(e.getMessage());
+                save(checkpoint);
+                if (!sleep()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        checkpoint.setState(BackfillCheckpoint.State.PAUSED);
+        save(checkpoint);
+    }
+
+    /**
+     * Returns true once the cursor is exhausted, false when stopped early.
+     */
+    private boolean scan(BackfillCheckpoint checkpoint) throws InterruptedException {
+        Bson candidates = Filters.and(
+                Filters.or(
+                        Filters.regex("description", "^" + Pattern.quote(DocumentService.PLACEHOLDER_DESCRIPTION_PREFIX)),
+                        Filters.eq("description", null),
+                        Filters.eq("description", "")),
+                Filters.nin("enrichmentStatus",
+                        DocumentEntity.EnrichmentStatus.PENDING.name(), DocumentEntity.EnrichmentStatus.COMPLETED.name()));
+        if (checkpoint.getLastDocumentId() != null) {
+            candidates = Filters.and(candidates, Filters.gt("_id", toObjectId(checkpoint.getLastDocumentId())));
+        }
+
+        int sinceCheckpoint = 0;
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection("documents").find(candidates)
+                .projection(Projections.include("_id"))
+                .sort(Sorts.ascending("_id"))
+                .batchSize(100)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                String documentId = String.valueOf(cursor.next().get("_id"));
+                if (!awaitCapacity()) {
+                    return false;
+                }
+
+                // Job first: a document marked PENDING without one would be skipped by every later scan
+                enrichmentJobService.enqueue(documentId, EnrichmentJob.Source.BACKFILL);
+                documentService.markEnrichmentPending(documentId);
+                checkpoint.setLastDocumentId(documentId);
+                checkpoint.setEnqueued(checkpoint.getEnqueued() + 1);
+                if (++sinceCheckpoint >= checkpointEvery) {
+                    save(checkpoint);
+                    sinceCheckpoint = 0;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until a backfill slot is free and the AI service is reachable; false if stopped.
+     */
+    private boolean awaitCapacity() throws InterruptedException {
+        int window = Math.max(1, (int) Math.floor(enrichmentWorkers * aiShare));
+        while (!stopRequested) {
+            if (aiService.isAIServiceAvailable()
+                    && enrichmentJobRepository.countBySourceAndStatusIn(EnrichmentJob.Source.BACKFILL, IN_FLIGHT) < window) {
+                return true;
+            }
+            Thread.sleep(pollMs);
+        }
+        return false;
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(pollMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void save(BackfillCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
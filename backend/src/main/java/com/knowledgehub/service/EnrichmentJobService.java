@@ -0,0 +1,312 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.entity.DocumentEntity;
+import com.knowledgehub.entity.EnrichmentJob;
+import com.knowledgehub.repository.EnrichmentJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs AI summarization and tagging outside the upload request.
+ *
+ * Jobs live in the {@code enrichment_jobs} collection, so they survive restarts. A poller claims
+ * due jobs with an atomic findAndModify that takes a time-limited lease, and runs them on a
+ * fixed-size worker pool. The worker renews the lease at every progress step; a worker that dies
+ * mid-job simply lets its lease expire and the job is claimed again. Failures are retried with exponential backoff and jitter; after
+ * {@code enrichment.max-attempts} the job is dead-lettered and the document marked FAILED.
+ * Each claim bumps {@code attempts}, which doubles as a fencing token for completing the job.
+ * Every stage change is published as an {@link EnrichmentProgressEvent} for clients following along.
+ */
+@Service
+public class EnrichmentJobService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EnrichmentJobRepository enrichmentJobRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ChunkedSummarizer chunkedSummarizer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${enrichment.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${enrichment.backoff-base-ms:10000}")
+    private long backoffBaseMs;
+
+    @Value("${enrichment.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    @Value("${enrichment.lease-ms:900000}")
+    private long leaseMs;
+
+    private final Semaphore freeWorkers;
+    private final ExecutorService workers;
+
+    public EnrichmentJobService(@Value("${enrichment.workers:2}") int workerCount) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.freeWorkers = new Semaphore(workerCount);
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "enrichment-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public EnrichmentJob enqueue(String documentId) {
+        return enqueue(documentId, EnrichmentJob.Source.UPLOAD);
+    }
+
+    public EnrichmentJob enqueue(String documentId, EnrichmentJob.Source source) {
+        EnrichmentJob job = enrichmentJobRepository.save(new EnrichmentJob(documentId, source));
+        progress(EnrichmentProgressEvent.of(job.getId(), documentId, EnrichmentProgressEvent.Stage.STORED));
+        // Start right away if a worker is free instead of waiting for the next poll
+        try {
+            dispatch();
+        } catch (Exception e) {
+            System.err.println("Failed to dispatch enrichment job " + job.getId() + ": " + e.getMessage());
+        }
+        return job;
+    }
+
+    @Scheduled(fixedDelayString = "${enrichment.poll-interval-ms:2000}")
+    public void dispatch() {
+        while (freeWorkers.tryAcquire()) {
+            EnrichmentJob job;
+            try {
+                job = claimNext();
+            } catch (Exception e) {
+                freeWorkers.release();
+                System.err.println("Failed to claim enrichment job: " + e.getMessage());
+                return;
+            }
+            if (job == null) {
+                freeWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    process(job);
+                } catch (Exception e) {
+                    retryOrDeadLetter(job, e.getMessage());
+                } finally {
+                    freeWorkers.release();
+                }
+            });
+        }
+    }
+
+    private EnrichmentJob claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        Query due = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(EnrichmentJob.Status.QUEUED).and("nextAttemptAt").lte(now),
+                // The lease ran out, so whoever held the job is gone
+                Criteria.where("status").is(EnrichmentJob.Status.RUNNING).and("lockedUntil").lt(now)))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", EnrichmentJob.Status.RUNNING)
+                .set("lockedUntil", now.plusNanos(leaseMs * 1_000_000))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true), EnrichmentJob.class);
+    }
+
+    private void process(EnrichmentJob job) {
+        Optional<DocumentEntity> found = documentService.findById(job.getDocumentId());
+        if (found.isEmpty()) {
+            if (finish(job, EnrichmentJob.Status.DONE, "Document no longer exists")) {
+                progress(EnrichmentProgressEvent.problem(job.getId(), job.getDocumentId(),
+                        EnrichmentProgressEvent.Stage.FAILED, "Document no longer exists"));
+            }
+            return;
+        }
+        DocumentEntity document = found.get();
+        // Applied by an earlier attempt that died before it could mark the job done
+        if (document.getEnrichmentStatus() == DocumentEntity.EnrichmentStatus.COMPLETED) {
+            if (finish(job, EnrichmentJob.Status.DONE, null)) {
+                progress(EnrichmentProgressEvent.done(job.getId(), document.getId(), document.getSummary(), document.getTags()));
+            }
+            return;
+        }
+
+        AIService.AIProcessResult result = chunkedSummarizer.summarize(
+                Paths.get(document.getFilePath()), document.getFileName(), document.getFileType(),
+                progressListener(job));
+        if (!result.isSuccess()) {
+            retryOrDeadLetter(job, result.getMessage());
+            return;
+        }
+
+        documentService.applyEnrichment(document, result.getSummary(), result.getTags());
+        if (finish(job, EnrichmentJob.Status.DONE, null)) {
+            progress(EnrichmentProgressEvent.done(job.getId(), document.getId(), result.getSummary(), result.getTags()));
+        }
+    }
+
+    private ChunkedSummarizer.ProgressListener progressListener(EnrichmentJob job) {
+        return new ChunkedSummarizer.ProgressListener() {
+            @Override
+            public void extracting() {
+                renewLease(job);
+                progress(EnrichmentProgressEvent.of(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.EXTRACTING));
+            }
+
+            @Override
+            public void summarizing(int completedChunks, int totalChunks) {
+                renewLease(job);
+                progress(EnrichmentProgressEvent.summarizing(job.getId(), job.getDocumentId(), completedChunks, totalChunks));
+            }
+
+            @Override
+            public void tagging() {
+                renewLease(job);
+                progress(EnrichmentProgressEvent.of(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.TAGGING));
+            }
+        };
+    }
+
+    /**
+     * Pushes the lease out while the job is still making progress, so a long but healthy job is
+     * not mistaken for an orphan and claimed a second time.
+     */
+    private void renewLease(EnrichmentJob job) {
+        try {
+            mongoTemplate.updateFirst(
+                    ownedBy(job),
+                    new Update().set("lockedUntil", LocalDateTime.now().plusNanos(leaseMs * 1_000_000)),
+                    EnrichmentJob.class);
+        } catch (Exception e) {
+            System.err.println("Failed to renew lease of enrichment job " + job.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void progress(EnrichmentProgressEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            // Progress is informational; never let it fail the job
+            System.err.println("Failed to publish enrichment progress: " + e.getMessage());
+        }
+    }
+
+    private void retryOrDeadLetter(EnrichmentJob job, String error) {
+        if (job.getAttempts() >= maxAttempts) {
+            if (finish(job, EnrichmentJob.Status.DEAD, error)) {
+                documentService.markEnrichmentFailed(job.getDocumentId());
+                progress(EnrichmentProgressEvent.problem(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.FAILED, error));
+                System.err.println("Enrichment of document " + job.getDocumentId() + " dead-lettered after "
+                        + job.getAttempts() + " attempts: " + error);
+            }
+            return;
+        }
+
+        long backoff = Math.min(backoffMaxMs, backoffBaseMs << Math.min(20, job.getAttempts() - 1));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        boolean requeued = mongoTemplate.updateFirst(
+                ownedBy(job),
+                new Update()
+                        .set("status", EnrichmentJob.Status.QUEUED)
+                        .set("nextAttemptAt", LocalDateTime.now().plusNanos(delay * 1_000_000))
+                        .unset("lockedUntil")
+                        .set("lastError", error)
+                        .set("updatedAt", LocalDateTime.now()),
+                EnrichmentJob.class).getModifiedCount() > 0;
+        if (requeued) {
+            progress(EnrichmentProgressEvent.problem(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.RETRYING, error));
+        }
+    }
+
+    private boolean finish(EnrichmentJob job, EnrichmentJob.Status status, String error) {
+        return mongoTemplate.updateFirst(
+                ownedBy(job),
+                new Update()
+                        .set("status", status)
+                        .unset("lockedUntil")
+                        .set("lastError", error)
+                        .set("updatedAt", LocalDateTime.now()),
+                EnrichmentJob.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Matches the job only while this claim still holds it; a later claim has a higher attempt count.
+     */
+    private Query ownedBy(EnrichmentJob job) {
+        return Query.query(Criteria.where("_id").is(job.getId())
+                .and("status").is(EnrichmentJob.Status.RUNNING)
+                .and("attempts").is(job.getAttempts()));
+    }
+
+    /**
+     * Rebuilds the job's progress from what is stored. A running job is reported as extracting,
+     * since how far it got is only known to the worker.
+     */
+    public EnrichmentProgressEvent currentProgress(EnrichmentJob job) {
+        return switch (job.getStatus()) {
+            case QUEUED -> job.getAttempts() == 0
+                    ? EnrichmentProgressEvent.of(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.STORED)
+                    : EnrichmentProgressEvent.problem(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.RETRYING, job.getLastError());
+            case RUNNING -> EnrichmentProgressEvent.of(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.EXTRACTING);
+            case DONE -> documentService.findById(job.getDocumentId())
+                    .map(document -> EnrichmentProgressEvent.done(job.getId(), document.getId(), document.getSummary(), document.getTags()))
+                    .orElseGet(() -> EnrichmentProgressEvent.problem(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.FAILED, "Document no longer exists"));
+            case DEAD -> EnrichmentProgressEvent.problem(job.getId(), job.getDocumentId(), EnrichmentProgressEvent.Stage.FAILED, job.getLastError());
+        };
+    }
+
+    /**
+     * Puts every dead-lettered job back on the queue with a fresh attempt budget.
+     */
+    public long requeueDeadLetters() {
+        LocalDateTime now = LocalDateTime.now();
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where("status").is(EnrichmentJob.Status.DEAD)),
+                new Update()
+                        .set("status", EnrichmentJob.Status.QUEUED)
+                        .set("attempts", 0)
+                        .set("nextAttemptAt", now)
+                        .set("updatedAt", now),
+                EnrichmentJob.class).getModifiedCount();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (EnrichmentJob.Status status : EnrichmentJob.Status.values()) {
+            stats.put(status.name().toLowerCase(), enrichmentJobRepository.countByStatus(status));
+        }
+        stats.put("freeWorkers", freeWorkers.availablePermits());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
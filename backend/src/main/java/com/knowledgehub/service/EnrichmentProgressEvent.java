@@ -0,0 +1,32 @@
+package com.knowledgehub.service;
+
+import java.util.List;
+
+/**
+ * Published as an enrichment job moves through its stages, so the uploader can follow along.
+ * Chunk counts are only set while summarizing; summary and tags only once the job is done.
+ */
+public record EnrichmentProgressEvent(String jobId, String documentId, Stage stage,
+                                      Integer completedChunks, Integer totalChunks,
+                                      String summary, List<String> tags, String message) {
+
+    public enum Stage {
+        STORED, EXTRACTING, SUMMARIZING, TAGGING, DONE, RETRYING, FAILED
+    }
+
+    public static EnrichmentProgressEvent of(String jobId, String documentId, Stage stage) {
+        return new EnrichmentProgressEvent(jobId, documentId, stage, null, null, null, null, null);
+    }
+
+    public static EnrichmentProgressEvent summarizing(String jobId, String documentId, int completedChunks, int totalChunks) {
+        return new EnrichmentProgressEvent(jobId, documentId, Stage.SUMMARIZING, completedChunks, totalChunks, null, null, null);
+    }
+
+    public static EnrichmentProgressEvent done(String jobId, String documentId, String summary, List<String> tags) {
+        return new EnrichmentProgressEvent(jobId, documentId, Stage.DONE, null, null, summary, tags, null);
+    }
+
+    public static EnrichmentProgressEvent problem(String jobId, String documentId, Stage stage, String message) {
+        return new EnrichmentProgressEvent(jobId, documentId, stage, null, null, null, null, message);
+    }
+}
@@ -0,0 +1,135 @@
+package com.knowledgehub.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int-to-float map for non-negative keys, used for sparse rating vectors
+ * without boxing. Not thread-safe.
+ */
+final class IntFloatHashMap {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private float[] values;
+    private int mask;
+    private int size;
+
+    IntFloatHashMap() {
+        this(4);
+    }
+
+    IntFloatHashMap(int expectedSize) {
+        int capacity = 8;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return keys[indexOf(key)] != FREE;
+    }
+
+    float get(int key, float defaultValue) {
+        int index = indexOf(key);
+        return keys[index] != FREE ? values[index] : defaultValue;
+    }
+
+    void put(int key, float value) {
+        int index = indexOf(key);
+        if (keys[index] == FREE) {
+            keys[index] = key;
+            size++;
+            values[index] = value;
+            growIfNeeded();
+        } else {
+            values[index] = value;
+        }
+    }
+
+    void addTo(int key, float delta) {
+        int index = indexOf(key);
+        if (keys[index] == FREE) {
+            keys[index] = key;
+            size++;
+            values[index] = delta;
+            growIfNeeded();
+        } else {
+            values[index] += delta;
+        }
+    }
+
+    void remove(int key) {
+        int gap = indexOf(key);
+        if (keys[gap] == FREE) {
+            return;
+        }
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int index = (gap + 1) & mask;
+        while (keys[index] != FREE) {
+            int home = slot(keys[index]);
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[gap] = FREE;
+        size--;
+    }
+
+    void forEach(Consumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int indexOf(int key) {
+        int index = slot(key);
+        while (keys[index] != FREE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void growIfNeeded() {
+        if (size * 2 <= keys.length) {
+            return;
+        }
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new float[capacity];
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    interface Consumer {
+        void accept(int key, float value);
+    }
+}
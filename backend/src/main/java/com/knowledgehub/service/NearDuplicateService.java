@@ -0,0 +1,384 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.entity.DocumentEntity;
+import com.knowledgehub.entity.DocumentSignature;
+import com.knowledgehub.repository.DocumentSignatureRepository;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flags near-duplicate uploads with MinHash signatures and locality-sensitive hashing.
+ *
+ * Extracted text is cut into overlapping word shingles and summarized by {@value #HASHES} MinHash
+ * values, whose agreement rate estimates the Jaccard similarity of two documents' shingle sets.
+ * The signature is split into {@value #BANDS} bands; documents sharing any band bucket are
+ * candidates, which is a handful of index probes per upload however many documents exist.
+ * Candidates are confirmed against {@code duplicates.similarity-threshold} using the stored
+ * signatures. With 16 bands of 8 rows, about 95% of pairs at 0.8 similarity and virtually all
+ * above 0.9 become candidates, against about 6% of pairs at 0.5.
+ */
+@Service
+public class NearDuplicateService {
+
+    static final int SIGNATURE_VERSION = 1;
+
+    private static final int HASHES = 128;
+    private static final int BANDS = 16;
+    private static final int ROWS = HASHES / BANDS;
+    private static final int SHINGLE_WORDS = 5;
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long state = 0x5DEECE66DL;
+        for (int i = 0; i < HASHES; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(state);
+        }
+    }
+
+    @Autowired
+    private DocumentSignatureRepository signatureRepository;
+
+    @Autowired
+    private DocumentTextExtractor textExtractor;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${duplicates.enabled:true}")
+    private boolean enabled;
+
+    @Value("${duplicates.similarity-threshold:0.8}")
+    private double similarityThreshold;
+
+    @Value("${duplicates.min-words:50}")
+    private int minWords;
+
+    @Value("${duplicates.max-candidates:50}")
+    private int maxCandidates;
+
+    private final AtomicBoolean indexing = new AtomicBoolean();
+    private final AtomicLong indexedByBackfill = new AtomicLong();
+
+    public record Match(String documentId, double similarity) {
+    }
+
+    public record ClusterMember(String documentId, double similarityToFirst) {
+    }
+
+    /**
+     * Stores the document's signature and returns already indexed documents that look like
+     * near-duplicates of it, most similar first. Never fails the caller; problems yield no matches.
+     */
+    public List<Match> index(DocumentEntity document) {
+        return index(document.getId(), document.getFilePath(), document.getFileType());
+    }
+
+    private List<Match> index(String documentId, String filePath, String fileType) {
+        if (!enabled || filePath == null) {
+            return List.of();
+        }
+        try {
+            Optional<long[]> signature = textExtractor.extract(Paths.get(filePath), fileType).flatMap(this::signature);
+            if (signature.isEmpty()) {
+                return List.of();
+            }
+            List<Long> bands = bandKeys(signature.get());
+            List<Match> matches = findMatches(documentId, signature.get(), bands);
+            signatureRepository.save(new DocumentSignature(documentId, toList(signature.get()), bands, SIGNATURE_VERSION));
+            return matches;
+        } catch (Exception e) {
+            System.err.println("Near-duplicate check failed for document " + documentId + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Confirms the {@code duplicates.max-candidates} candidates sharing the most bands. A true
+     * near-duplicate shares most of its bands, so it ranks ahead of documents that only share the
+     * odd boilerplate bucket, however crowded those buckets are.
+     */
+    private List<Match> findMatches(String documentId, long[] signature, List<Long> bands) {
+        List<Match> matches = new ArrayList<>();
+        for (Document candidate : mongoTemplate.getCollection("document_signatures").aggregate(List.of(
+                        Aggregates.match(Filters.and(Filters.in("bands", bands), Filters.eq("version", SIGNATURE_VERSION))),
+                        Aggregates.project(Projections.fields(
+                                Projections.include("minhash"),
+                                Projections.computed("sharedBands",
+                                        new Document("$size", new Document("$setIntersection", List.of("$bands", bands)))))),
+                        Aggregates.sort(Sorts.descending("sharedBands")),
+                        // One more, in case the document's own earlier signature is among them
+                        Aggregates.limit(maxCandidates + 1)))
+                .allowDiskUse(true)) {
+            String candidateId = String.valueOf(candidate.get("_id"));
+            if (candidateId.equals(documentId)) {
+                continue;
+            }
+            double similarity = similarity(signature, candidate.getList("minhash", Long.class));
+            if (similarity >= similarityThreshold) {
+                matches.add(new Match(candidateId, similarity));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed());
+        return matches;
+    }
+
+    @EventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        if (event.type() == DocumentChangedEvent.Type.DELETED) {
+            remove(event.documentId());
+        }
+    }
+
+    public void remove(String documentId) {
+        signatureRepository.deleteById(documentId);
+    }
+
+    /**
+     * Groups indexed documents into near-duplicate clusters, largest first. Within a cluster
+     * documents are linked transitively, so members can be further from each other than the threshold.
+     */
+    public List<List<String>> findClusters() {
+        Set<String> pairsSeen = new HashSet<>();
+        Map<String, String> parent = new HashMap<>();
+
+        for (Document bucket : mongoTemplate.getCollection("document_signatures").aggregate(List.of(
+                        Aggregates.match(Filters.eq("version", SIGNATURE_VERSION)),
+                        Aggregates.unwind("$bands"),
+                        Aggregates.group("$bands", Accumulators.addToSet("documents", "$_id")),
+                        Aggregates.match(Filters.expr(new Document("$gt", List.of(new Document("$size", "$documents"), 1))))))
+                .allowDiskUse(true)) {
+            List<String> members = bucket.getList("documents", Object.class).stream().map(String::valueOf).toList();
+            // A crowded bucket (shared boilerplate) is only compared against its first member
+            int firsts = members.size() > maxCandidates ? 1 : members.size();
+            for (int i = 0; i < firsts; i++) {
+                for (int j = i + 1; j < members.size(); j++) {
+                    String a = members.get(i);
+                    String b = members.get(j);
+                    String pair = a.compareTo(b) < 0 ? a + ":" + b : b + ":" + a;
+                    if (pairsSeen.add(pair)) {
+                        parent.putIfAbsent(a, a);
+                        parent.putIfAbsent(b, b);
+                    }
+                }
+            }
+        }
+        if (pairsSeen.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, List<Long>> signatures = new HashMap<>();
+        signatureRepository.findAllById(parent.keySet())
+                .forEach(signature -> signatures.put(signature.getDocumentId(), signature.getMinhash()));
+        for (String pair : pairsSeen) {
+            int split = pair.indexOf(':');
+            String a = pair.substring(0, split);
+            String b = pair.substring(split + 1);
+            List<Long> first = signatures.get(a);
+            List<Long> second = signatures.get(b);
+            if (first != null && second != null && similarity(first, second) >= similarityThreshold) {
+                parent.put(root(parent, a), root(parent, b));
+            }
+        }
+
+        Map<String, List<String>> clusters = new LinkedHashMap<>();
+        for (String id : parent.keySet()) {
+            clusters.computeIfAbsent(root(parent, id), key -> new ArrayList<>()).add(id);
+        }
+        return clusters.values().stream()
+                .filter(cluster -> cluster.size() > 1)
+                .sorted(Comparator.comparingInt((List<String> cluster) -> cluster.size()).reversed())
+                .toList();
+    }
+
+    /**
+     * Estimated similarity of each listed document to the first, in the given order.
+     */
+    public List<ClusterMember> similarityToFirst(List<String> documentIds) {
+        Map<String, List<Long>> signatures = new HashMap<>();
+        signatureRepository.findAllById(documentIds)
+                .forEach(signature -> signatures.put(signature.getDocumentId(), signature.getMinhash()));
+        List<Long> first = signatures.get(documentIds.get(0));
+        List<ClusterMember> members = new ArrayList<>(documentIds.size());
+        for (String id : documentIds) {
+            List<Long> signature = signatures.get(id);
+            members.add(new ClusterMember(id, first != null && signature != null ? similarity(first, signature) : 0.0));
+        }
+        return members;
+    }
+
+    /**
+     * Signs existing documents that have no signature yet, on a background thread.
+     * Returns false if a run is already in progress.
+     */
+    public boolean startIndexingExisting() {
+        if (!indexing.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("duplicate-indexer").start(() -> {
+            try {
+                Set<String> signed = new HashSet<>();
+                for (Document signature : mongoTemplate.getCollection("document_signatures")
+                        .find(Filters.eq("version", SIGNATURE_VERSION)).projection(Projections.include("_id"))) {
+                    signed.add(String.valueOf(signature.get("_id")));
+                }
+                for (Document stored : mongoTemplate.getCollection("documents").find()
+                        .projection(Projections.include("filePath", "fileType"))
+                        .batchSize(500)) {
+                    String id = String.valueOf(stored.get("_id"));
+                    if (signed.contains(id)) {
+                        continue;
+                    }
+                    index(id, stored.getString("filePath"), stored.getString("fileType"));
+                    indexedByBackfill.incrementAndGet();
+                }
+            } catch (Exception e) {
+                System.err.println("Near-duplicate indexing stopped: " + e.getMessage());
+            } finally {
+                indexing.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("signedDocuments", signatureRepository.count());
+        stats.put("totalDocuments", mongoTemplate.getCollection("documents").estimatedDocumentCount());
+        stats.put("indexing", indexing.get());
+        stats.put("checkedByBackfill", indexedByBackfill.get());
+        stats.put("similarityThreshold", similarityThreshold);
+        return stats;
+    }
+
+    private Optional<long[]> signature(String text) {
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> tokens = new ArrayList<>(words.length);
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                tokens.add(word);
+            }
+        }
+        if (tokens.size() < Math.max(minWords, SHINGLE_WORDS)) {
+            return Optional.empty();
+        }
+
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (int start = 0; start + SHINGLE_WORDS <= tokens.size(); start++) {
+            long shingle = 0xCBF29CE484222325L;
+            for (int i = start; i < start + SHINGLE_WORDS; i++) {
+                shingle = fnv(shingle, tokens.get(i));
+            }
+            for (int h = 0; h < HASHES; h++) {
+                long value = mix(shingle ^ SEEDS[h]);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return Optional.of(signature);
+    }
+
+    private static List<Long> bandKeys(long[] signature) {
+        List<Long> keys = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; band++) {
+            // Seeding with the band number keeps equal rows in different bands in different buckets
+            long key = mix(band + 1L);
+            for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+                key = mix(key ^ signature[row]);
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static double similarity(long[] signature, List<Long> other) {
+        if (other == null || other.size() != signature.length) {
+            return 0.0;
+        }
+        int equal = 0;
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] == other.get(i)) {
+                equal++;
+            }
+        }
+        return (double) equal / signature.length;
+    }
+
+    private static double similarity(List<Long> first, List<Long> second) {
+        if (first.size() != second.size()) {
+            return 0.0;
+        }
+        int equal = 0;
+        for (int i = 0; i < first.size(); i++) {
+            if (first.get(i).longValue() == second.get(i).longValue()) {
+                equal++;
+            }
+        }
+        return (double) equal / first.size();
+    }
+
+    private static String root(Map<String, String> parent, String id) {
+        String root = id;
+        while (!parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        // Path compression
+        String current = id;
+        while (!current.equals(root)) {
+            String next = parent.get(current);
+            parent.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    private static long fnv(long hash, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            hash ^= word.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        // Word separator, so ("ab", "c") and ("a", "bc") hash differently
+        hash ^= ' ';
+        return hash * 0x100000001B3L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static List<Long> toList(long[] values) {
+        List<Long> list = new ArrayList<>(values.length);
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
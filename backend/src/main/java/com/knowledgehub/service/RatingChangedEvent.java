@@ -0,0 +1,9 @@
+package com.knowledgehub.service;
+
+/**
+ * Published after a document's rating aggregate has been recomputed. {@code score} is the
+ * user's new score, or 0 when their rating was removed.
+ */
+public record RatingChangedEvent(String documentId, String userId, int score,
+                                 double averageRating, int totalRatings) {
+}
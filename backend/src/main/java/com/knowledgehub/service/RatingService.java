@@ -5,6 +5,7 @@ import com.knowledgehub.entity.Rating;
 import com.knowledgehub.entity.User;
 import com.knowledgehub.repository.RatingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,6 +21,9 @@ public class RatingService {
     @Autowired
     private DocumentService documentService;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public Rating addOrUpdateRating(int score, User user, DocumentEntity document) {
         if (score < 1 || score > 5) {
             throw new RuntimeException("Rating must be between 1 and 5");
@@ -37,7 +41,7 @@ public class RatingService {
         }
         
         rating = ratingRepository.save(rating);
-        updateDocumentAverageRating(document);
+        updateDocumentAverageRating(document, user.getId(), score);
         
         return rating;
     }
@@ -61,24 +65,22 @@ public class RatingService {
         
         DocumentEntity document = rating.getDocument();
         ratingRepository.delete(rating);
-        updateDocumentAverageRating(document);
+        updateDocumentAverageRating(document, user.getId(), 0);
     }
     
-    private void updateDocumentAverageRating(DocumentEntity document) {
+    private void updateDocumentAverageRating(DocumentEntity document, String userId, int score) {
         List<Rating> ratings = ratingRepository.findByDocument(document);
         
-        if (ratings.isEmpty()) {
-            document.setAverageRating(0.0);
-            document.setTotalRatings(0);
-        } else {
+        double averageRating = 0.0;
+        if (!ratings.isEmpty()) {
             double sum = ratings.stream().mapToInt(Rating::getScore).sum();
-            double average = sum / ratings.size();
-            
-            document.setAverageRating(Math.round(average * 10.0) / 10.0); // Round to 1 decimal
-            document.setTotalRatings(ratings.size());
+            averageRating = Math.round(sum / ratings.size() * 10.0) / 10.0; // Round to 1 decimal
         }
         
-        documentService.saveDocument(document);
+        // Written through the service only; the document may be a copy other requests also read from
+        documentService.updateRatingSummary(document.getId(), averageRating, ratings.size());
+        eventPublisher.publishEvent(new RatingChangedEvent(
+                document.getId(), userId, score, averageRating, ratings.size()));
     }
     
     public double getAverageRating(DocumentEntity document) {
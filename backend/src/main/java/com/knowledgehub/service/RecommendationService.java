@@ -0,0 +1,276 @@
+package com.knowledgehub.service;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.model.Projections;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Item-item collaborative filtering over the ratings collection.
+ *
+ * Document and user IDs are interned to dense ints so rating vectors and similarity
+ * accumulators are primitive sparse maps. Every document keeps its top-k neighbours by
+ * shrunk cosine similarity. A full rebuild runs at startup and nightly; in between, rating
+ * changes are queued and only the rows whose similarities they can affect are recomputed.
+ * Row computation is spread over a dedicated fork-join pool.
+ */
+@Service
+public class RecommendationService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${recommendations.neighbours:20}")
+    private int neighbourCount;
+
+    @Value("${recommendations.shrinkage:5}")
+    private float shrinkage;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final ConcurrentLinkedQueue<RatingChangedEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    private volatile Model model;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("recommendations-startup").start(this::rebuildAll);
+    }
+
+    @EventListener
+    public void onRatingChanged(RatingChangedEvent event) {
+        pendingChanges.add(event);
+    }
+
+    @Scheduled(cron = "${recommendations.full-rebuild-cron:0 0 3 * * *}")
+    public synchronized void rebuildAll() {
+        try {
+            long start = System.currentTimeMillis();
+            Model fresh = new Model();
+            for (Document rating : mongoTemplate.getCollection("ratings").find()
+                    .projection(Projections.include("user", "document", "score"))
+                    .batchSize(5000)) {
+                DBRef user = rating.get("user", DBRef.class);
+                DBRef document = rating.get("document", DBRef.class);
+                if (user == null || document == null) {
+                    continue;
+                }
+                fresh.setRating(fresh.userIndex(String.valueOf(user.getId())),
+                        fresh.documentIndex(String.valueOf(document.getId())),
+                        rating.getInteger("score", 0));
+            }
+
+            BitSet all = new BitSet();
+            all.set(0, fresh.documentIds.size());
+            recomputeRows(fresh, all);
+            model = fresh;
+
+            System.out.println("Rebuilt recommendations for " + fresh.documentIds.size() + " documents in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        } catch (Exception e) {
+            System.err.println("Recommendation rebuild failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.incremental-refresh-ms:60000}")
+    public synchronized void applyPendingChanges() {
+        Model current = model;
+        if (current == null || pendingChanges.isEmpty()) {
+            return;
+        }
+
+        BitSet dirty = new BitSet();
+        current.lock.writeLock().lock();
+        try {
+            RatingChangedEvent change;
+            while ((change = pendingChanges.poll()) != null) {
+                int user = current.userIndex(change.userId());
+                int document = current.documentIndex(change.documentId());
+                current.setRating(user, document, change.score());
+
+                // The document's norm changed, so every row sharing a rater with it is affected,
+                // including rows the changed user still rates after a removal
+                dirty.set(document);
+                current.ratingsByUser.get(user).forEach((item, score) -> dirty.set(item));
+                current.ratingsByDocument.get(document).forEach((rater, score) ->
+                        current.ratingsByUser.get(rater).forEach((item, s) -> dirty.set(item)));
+            }
+        } finally {
+            current.lock.writeLock().unlock();
+        }
+        recomputeRows(current, dirty);
+    }
+
+    /**
+     * Returns up to {@code limit} document IDs the user has not rated, best first.
+     */
+    public List<String> recommend(String userId, int limit) {
+        Model current = model;
+        if (current == null) {
+            return List.of();
+        }
+
+        current.lock.readLock().lock();
+        try {
+            Integer user = current.userIndexes.get(userId);
+            if (user == null) {
+                return List.of();
+            }
+            IntFloatHashMap rated = current.ratingsByUser.get(user);
+            IntFloatHashMap scores = new IntFloatHashMap();
+            rated.forEach((item, score) -> {
+                Neighbours neighbours = current.neighbours.get(item);
+                if (neighbours == null) {
+                    return;
+                }
+                for (int i = 0; i < neighbours.documents().length; i++) {
+                    int candidate = neighbours.documents()[i];
+                    if (!rated.containsKey(candidate)) {
+                        scores.addTo(candidate, neighbours.similarities()[i] * score);
+                    }
+                }
+            });
+
+            Neighbours best = topK(scores, limit);
+            List<String> result = new ArrayList<>(best.documents().length);
+            for (int document : best.documents()) {
+                result.add(current.documentIds.get(document));
+            }
+            return result;
+        } finally {
+            current.lock.readLock().unlock();
+        }
+    }
+
+    private void recomputeRows(Model target, BitSet rows) {
+        Map<Integer, Neighbours> computed;
+        target.lock.readLock().lock();
+        try {
+            float[] norms = new float[target.documentIds.size()];
+            for (int document = 0; document < norms.length; document++) {
+                float[] sumOfSquares = new float[1];
+                target.ratingsByDocument.get(document).forEach((user, score) -> sumOfSquares[0] += score * score);
+                norms[document] = (float) Math.sqrt(sumOfSquares[0]);
+            }
+            computed = pool.submit(() -> rows.stream().parallel().boxed()
+                    .collect(Collectors.toConcurrentMap(
+                            document -> document, document -> computeRow(target, document, norms))))
+                    .join();
+        } finally {
+            target.lock.readLock().unlock();
+        }
+
+        target.lock.writeLock().lock();
+        try {
+            computed.forEach(target.neighbours::set);
+        } finally {
+            target.lock.writeLock().unlock();
+        }
+    }
+
+    private Neighbours computeRow(Model target, int document, float[] norms) {
+        IntFloatHashMap dots = new IntFloatHashMap();
+        IntFloatHashMap coRaters = new IntFloatHashMap();
+        target.ratingsByDocument.get(document).forEach((user, score) ->
+                target.ratingsByUser.get(user).forEach((other, otherScore) -> {
+                    if (other != document) {
+                        dots.addTo(other, score * otherScore);
+                        coRaters.addTo(other, 1f);
+                    }
+                }));
+
+        IntFloatHashMap similarities = new IntFloatHashMap(dots.size());
+        dots.forEach((other, dot) -> {
+            float common = coRaters.get(other, 0f);
+            float cosine = dot / (norms[document] * norms[other]);
+            similarities.put(other, cosine * common / (common + shrinkage));
+        });
+        return topK(similarities, neighbourCount);
+    }
+
+    private static Neighbours topK(IntFloatHashMap scores, int k) {
+        PriorityQueue<Scored> heap = new PriorityQueue<>(Comparator.comparingDouble(Scored::score));
+        scores.forEach((key, score) -> {
+            if (heap.size() < k) {
+                heap.add(new Scored(key, score));
+            } else if (k > 0 && score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Scored(key, score));
+            }
+        });
+        int[] documents = new int[heap.size()];
+        float[] similarities = new float[heap.size()];
+        for (int i = documents.length - 1; i >= 0; i--) {
+            Scored entry = heap.poll();
+            documents[i] = entry.key();
+            similarities[i] = entry.score();
+        }
+        return new Neighbours(documents, similarities);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private record Neighbours(int[] documents, float[] similarities) {
+    }
+
+    private record Scored(int key, float score) {
+    }
+
+    private static final class Model {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Integer> documentIndexes = new HashMap<>();
+        private final Map<String, Integer> userIndexes = new HashMap<>();
+        private final List<String> documentIds = new ArrayList<>();
+        private final List<IntFloatHashMap> ratingsByDocument = new ArrayList<>();
+        private final List<IntFloatHashMap> ratingsByUser = new ArrayList<>();
+        private final List<Neighbours> neighbours = new ArrayList<>();
+
+        private int documentIndex(String documentId) {
+            return documentIndexes.computeIfAbsent(documentId, id -> {
+                documentIds.add(id);
+                ratingsByDocument.add(new IntFloatHashMap());
+                neighbours.add(null);
+                return documentIds.size() - 1;
+            });
+        }
+
+        private int userIndex(String userId) {
+            return userIndexes.computeIfAbsent(userId, id -> {
+                ratingsByUser.add(new IntFloatHashMap());
+                return ratingsByUser.size() - 1;
+            });
+        }
+
+        private void setRating(int user, int document, int score) {
+            if (score <= 0) {
+                ratingsByUser.get(user).remove(document);
+                ratingsByDocument.get(document).remove(user);
+            } else {
+                ratingsByUser.get(user).put(document, score);
+                ratingsByDocument.get(document).put(user, score);
+            }
+        }
+    }
+}
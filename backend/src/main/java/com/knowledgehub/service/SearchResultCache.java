@@ -0,0 +1,100 @@
+package com.knowledgehub.service;
+
+import com.knowledgehub.entity.DocumentEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of search result pages, stored as document IDs plus the total count.
+ * Every entry is stamped with the index generation it was computed under; any write that can
+ * change search results bumps the generation, which invalidates all entries in O(1).
+ */
+@Component
+public class SearchResultCache {
+
+    @Value("${search.cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    public Optional<Entry> get(String key) {
+        long current = generation.get();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.generation() == current) {
+                hits.incrementAndGet();
+                return Optional.of(entry);
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, long computedAt, List<String> documentIds, long total) {
+        // A write landed while the query was running, so the result may already be stale
+        if (computedAt != generation.get()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(computedAt, List.copyOf(documentIds), total));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public static String key(String searchText, List<String> tags,
+                             DocumentEntity.Visibility visibility, Pageable pageable) {
+        StringBuilder key = new StringBuilder();
+        if (searchText != null && !searchText.trim().isEmpty()) {
+            key.append("q=").append(searchText.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+        } else if (tags != null && !tags.isEmpty()) {
+            key.append("tags=").append(String.join(",", new TreeSet<>(tags)));
+        } else if (visibility != null) {
+            key.append("visibility=").append(visibility.name());
+        } else {
+            key.append("all");
+        }
+        key.append("|page=").append(pageable.getPageNumber())
+           .append("|size=").append(pageable.getPageSize())
+           .append("|sort=").append(pageable.getSort());
+        return key.toString();
+    }
+
+    public record Entry(long generation, List<String> documentIds, long total) {
+    }
+}
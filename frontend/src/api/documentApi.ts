@@ -1,5 +1,5 @@
 import api from './api';
-import { Document, DocumentDto, DocumentSearchRequest, DocumentSearchResponse } from '@/types';
+import { BulkUploadResponse, Document, DocumentDetailResponse, DocumentDto, DocumentSearchRequest, DocumentSearchResponse, UploadResponse } from '@/types';
 
 export const documentApi = {
   search: async (params: DocumentSearchRequest): Promise<DocumentSearchResponse> => {
@@ -12,7 +12,20 @@ export const documentApi = {
     return response.data;
   },
 
-  upload: async (formData: FormData): Promise<Document> => {
+  // No view count side effect, unlike getById and getDetail
+  getBatch: async (ids: string[]): Promise<{ documents: DocumentDto[]; missingIds: string[] }> => {
+    const response = await api.get('/documents/batch', {
+      params: { ids: ids.join(',') },
+    });
+    return response.data;
+  },
+
+  getDetail: async (id: string): Promise<DocumentDetailResponse> => {
+    const response = await api.get(`/documents/${id}/detail`);
+    return response.data;
+  },
+
+  upload: async (formData: FormData): Promise<UploadResponse> => {
     const response = await api.post('/documents/upload', formData, {
       headers: {
         'Content-Type': 'multipart/form-data',
@@ -21,6 +34,20 @@ export const documentApi = {
     return response.data;
   },
 
+  bulkUpload: async (
+    archive: File,
+    options: { tags?: string[]; visibility?: string; useAI?: boolean } = {}
+  ): Promise<BulkUploadResponse> => {
+    const response = await api.post('/documents/bulk', archive, {
+      headers: {
+        'Content-Type': 'application/zip',
+      },
+      params: options,
+      paramsSerializer: { indexes: null },
+    });
+    return response.data;
+  },
+
   update: async (id: string, data: Partial<Document>): Promise<Document> => {
     const response = await api.put(`/documents/${id}`, data);
     return response.data;
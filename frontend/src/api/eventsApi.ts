@@ -0,0 +1,76 @@
+import api from './api';
+
+const API_BASE_URL = '/api';
+const RECONNECT_DELAY_MS = 3000;
+const MAX_RECONNECT_DELAY_MS = 60000;
+
+type EventHandlers = Record<string, (data: any) => void>;
+
+// EventSource cannot send the Authorization header, and the JWT must not go into the URL,
+// so every connection uses a fresh single-use ticket. The browser's own reconnect would
+// replay a spent ticket, so reconnecting is done here with a new one.
+const subscribe = (path: string, handlers: EventHandlers): (() => void) => {
+  let source: EventSource | null = null;
+  let reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+  let closed = false;
+  let delay = RECONNECT_DELAY_MS;
+
+  const connect = async () => {
+    let ticket: string;
+    try {
+      const response = await api.post('/events/ticket');
+      ticket = response.data.ticket;
+    } catch (error) {
+      console.error('Error getting event stream ticket:', error);
+      scheduleReconnect();
+      return;
+    }
+    if (closed) return;
+
+    const stream = new EventSource(`${API_BASE_URL}${path}?ticket=${encodeURIComponent(ticket)}`);
+    Object.entries(handlers).forEach(([eventName, handler]) => {
+      stream.addEventListener(eventName, (event) => {
+        handler(JSON.parse((event as MessageEvent).data));
+      });
+    });
+    stream.onopen = () => {
+      delay = RECONNECT_DELAY_MS;
+    };
+    stream.onerror = () => {
+      stream.close();
+      source = null;
+      scheduleReconnect();
+    };
+    source = stream;
+  };
+
+  const scheduleReconnect = () => {
+    if (closed || reconnectTimer) return;
+    reconnectTimer = setTimeout(() => {
+      reconnectTimer = null;
+      connect();
+    }, delay);
+    delay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MS);
+  };
+
+  connect();
+
+  return () => {
+    closed = true;
+    if (reconnectTimer) clearTimeout(reconnectTimer);
+    source?.close();
+  };
+};
+
+export const eventsApi = {
+  // Events: "document" (DocumentEvent), "documents" (a bulk import)
+  subscribeFeed: (handlers: EventHandlers) => subscribe('/events/feed', handlers),
+
+  // Events: "document" (DocumentEvent), "comment" (CommentEvent), "rating" (RatingEvent)
+  subscribeDocument: (documentId: string, handlers: EventHandlers) =>
+    subscribe(`/events/documents/${documentId}`, handlers),
+
+  // Events: "progress" (EnrichmentProgress); the latest stage is replayed on connect
+  subscribeEnrichment: (jobId: string, handlers: EventHandlers) =>
+    subscribe(`/events/enrichment/${jobId}`, handlers),
+};
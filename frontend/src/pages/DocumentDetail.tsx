@@ -27,6 +27,7 @@ import {
   FileTextOutlined
 } from '@ant-design/icons';
 import { documentApi } from '@/api/documentApi';
+import { eventsApi } from '@/api/eventsApi';
 import { commentApi } from '@/api/commentApi';
 import { ratingApi } from '@/api/ratingApi';
 import { useAuthStore } from '@/stores/authStore';
@@ -34,10 +35,29 @@ import CommentBox from '@/components/CommentBox';
 import RatingStars from '@/components/RatingStars';
 import { formatDistanceToNow } from 'date-fns';
 import { vi } from 'date-fns/locale';
-import { Document, Comment, Rating } from '@/types';
+import { Document, DocumentDto, Comment, CommentEvent, DocumentEvent, Rating, RatingEvent } from '@/types';
 
 const { Title, Text, Paragraph } = Typography;
 
+// Transform backend response to frontend format
+const toDocument = (data: DocumentDto): Document => ({
+  ...data,
+  owner: {
+    id: data.ownerId,
+    username: data.ownerName,
+    fullName: data.ownerName,
+    email: '',
+    roles: [],
+    createdAt: ''
+  }
+} as Document);
+
+// Comments are newest first; events and API responses may both deliver the same comment
+const upsertComment = (comments: Comment[], comment: Comment): Comment[] =>
+  comments.some(c => c.id === comment.id)
+    ? comments.map(c => (c.id === comment.id ? { ...c, ...comment } : c))
+    : [comment, ...comments];
+
 const DocumentDetail: React.FC = () => {
   const { message } = App.useApp();
   const { id } = useParams<{ id: string }>();
@@ -52,26 +72,52 @@ const DocumentDetail: React.FC = () => {
 
   useEffect(() => {
     fetchDocumentDetails()
-    fetchComments()
-    fetchUserRating()
   }, [id])
 
+  // Bình luận, đánh giá và chỉnh sửa của người khác được đẩy về qua SSE thay vì tải lại trang
+  useEffect(() => {
+    if (!id) return;
+    return eventsApi.subscribeDocument(id, {
+      comment: (event: CommentEvent) => {
+        if (event.type === 'DELETED') {
+          setComments(prev => prev.filter(c => c.id !== event.id));
+        } else {
+          setComments(prev => upsertComment(prev, event as unknown as Comment));
+        }
+      },
+      rating: (event: RatingEvent) => {
+        setDocument(prev => prev && { ...prev, averageRating: event.averageRating, totalRatings: event.totalRatings });
+      },
+      document: (event: DocumentEvent) => {
+        if (event.type === 'DELETED') {
+          navigate('/');
+        } else {
+          refreshDocument();
+        }
+      }
+    });
+  }, [id])
+
+  // Không tăng lượt xem như getDetail
+  const refreshDocument = async () => {
+    try {
+      const { documents } = await documentApi.getBatch([id!]);
+      if (documents.length > 0) {
+        setDocument(toDocument(documents[0]));
+      }
+    } catch (error) {
+      console.error('Error refreshing document:', error);
+    }
+  };
+
   const fetchDocumentDetails = async () => {
     try {
-      const data = await documentApi.getById(id!);
-      // Transform backend response to frontend format
-      const transformedDocument = {
-        ...data,
-        owner: {
-          id: data.ownerId,
-          username: data.ownerName,
-          fullName: data.ownerName,
-          email: '',
-          roles: [],
-          createdAt: ''
-        }
-      };
-      setDocument(transformedDocument);
+      // One round-trip for the document, first comments page and the user's rating
+      const detail = await documentApi.getDetail(id!);
+      const data = detail.document;
+      setComments(detail.comments.content);
+      setUserRating(detail.userRating.hasRating ? detail.userRating.score ?? null : null);
+      setDocument(toDocument(data));
       console.log('Document ownerId:', data.ownerId, 'Current user id:', user?.id);
       setIsOwner(data.ownerId === user?.id);
     } catch (error: any) {
@@ -83,61 +129,33 @@ const DocumentDetail: React.FC = () => {
     }
   };
 
-  const fetchComments = async () => {
-    try {
-      const response = await commentApi.getByDocument(id!);
-      setComments(response.content);
-    } catch (error: any) {
-      console.error('Error fetching comments:', error);
-      if (error.response?.status === 403) {
-        message.warning('Bạn cần đăng nhập để xem bình luận');
-      } else if (error.response?.status !== 404) {
-        message.error('Không thể tải bình luận');
-      }
-    }
-  };
-
-  const fetchUserRating = async () => {
-    try {
-      const data = await ratingApi.getUserRating(id!);
-      setUserRating(data.hasRating ? data.score : null);
-    } catch (error: any) {
-      console.error('Error fetching user rating:', error);
-      if (error.response?.status === 403) {
-        message.warning('Bạn cần đăng nhập để xem đánh giá');
-      } else if (error.response?.status !== 404) {
-        message.error('Không thể tải đánh giá');
-      }
-    }
-  };
-
   const handleRatingChange = async (rating: number) => {
     try {
       console.log('Rating change:', rating, 'Document ID:', id);
       await ratingApi.addOrUpdateRating(id!, rating);
       setUserRating(rating);
       message.success('Đánh giá đã được cập nhật');
-      // Refresh document to get updated rating
-      fetchDocumentDetails();
+      // Điểm trung bình mới đến qua sự kiện "rating"
     } catch (error) {
       console.error('Rating error:', error);
       message.error('Không thể cập nhật đánh giá');
     }
   };
 
+  // Apply our own changes right away; the matching SSE event is then a no-op
   const handleCommentAdded = async (documentId: string, content: string) => {
-    await commentApi.add(documentId, content);
-    fetchComments();
+    const comment = await commentApi.add(documentId, content);
+    setComments(prev => upsertComment(prev, comment));
   };
 
   const handleCommentUpdated = async (commentId: string, content: string) => {
-    await commentApi.update(commentId, content);
-    fetchComments();
+    const comment = await commentApi.update(commentId, content);
+    setComments(prev => upsertComment(prev, comment));
   };
 
   const handleCommentDeleted = async (commentId: string) => {
     await commentApi.delete(commentId);
-    fetchComments();
+    setComments(prev => prev.filter(c => c.id !== commentId));
   };
 
   const handleDownload = async () => {
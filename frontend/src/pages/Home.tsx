@@ -1,8 +1,9 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { Link } from 'react-router-dom';
 import { Card, Row, Col, Statistic, Typography, Spin, Empty, Button, Space, App } from 'antd';
 import { FileTextOutlined, RiseOutlined, ClockCircleOutlined, UserOutlined, PlusOutlined } from '@ant-design/icons';
 import { homeApi } from '@/api/homeApi';
+import { eventsApi } from '@/api/eventsApi';
 import DocumentCard from '@/components/DocumentCard';
 import { HomeData, Document } from '@/types';
 
@@ -16,11 +17,32 @@ const Home: React.FC = () => {
     userDocuments: []
   });
   const [isLoading, setIsLoading] = useState<boolean>(true);
+  const refreshTimerRef = useRef<ReturnType<typeof setTimeout> | null>(null);
 
   useEffect(() => {
     fetchDashboardData();
   }, []);
 
+  // Tải lại khi có tài liệu mới hoặc thay đổi; gom các sự kiện liên tiếp thành một lần tải,
+  // cũng để snapshot trang chủ phía server kịp cập nhật
+  useEffect(() => {
+    const scheduleRefresh = () => {
+      if (refreshTimerRef.current) return;
+      refreshTimerRef.current = setTimeout(() => {
+        refreshTimerRef.current = null;
+        fetchDashboardData();
+      }, 3000);
+    };
+    const unsubscribe = eventsApi.subscribeFeed({
+      document: scheduleRefresh,
+      documents: scheduleRefresh
+    });
+    return () => {
+      unsubscribe();
+      if (refreshTimerRef.current) clearTimeout(refreshTimerRef.current);
+    };
+  }, []);
+
   const fetchDashboardData = async () => {
     try {
       const data = await homeApi.getDashboard();
@@ -1,4 +1,4 @@
-import { useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { 
   Card, 
@@ -13,6 +13,7 @@ import {
   Col,
   Progress,
   Alert,
+  Steps,
   App
 } from 'antd';
 
@@ -24,27 +25,33 @@ import {
   CheckCircleOutlined,
   ExclamationCircleOutlined,
   InfoCircleOutlined,
-  RobotOutlined,
-  ReloadOutlined
+  RobotOutlined
 } from '@ant-design/icons';
 import { documentApi } from '../api/documentApi';
-import { aiApi, AIProcessResponse } from '../api/aiApi';
-import { DocumentFormData } from '../types';
+import { eventsApi } from '../api/eventsApi';
+import { DocumentFormData, EnrichmentProgress, NearDuplicate } from '../types';
 
 const { Title, Text } = Typography;
 const { TextArea } = Input;
 const { Option } = Select;
 
+const ENRICHMENT_STEPS: EnrichmentProgress['stage'][] = ['STORED', 'EXTRACTING', 'SUMMARIZING', 'TAGGING', 'DONE'];
+const ENRICHMENT_STEP_TITLES = ['Đã lưu', 'Trích xuất', 'Tóm tắt', 'Gắn tags', 'Hoàn tất'];
+
 const UploadPage: React.FC = () => {
   const { message } = App.useApp();
   const [selectedFile, setSelectedFile] = useState<File | null>(null);
   const [isUploading, setIsUploading] = useState<boolean>(false);
   const [uploadProgress, setUploadProgress] = useState<number>(0);
-  const [isProcessingAI, setIsProcessingAI] = useState<boolean>(false);
-  const [aiResult, setAiResult] = useState<AIProcessResponse | null>(null);
+  const [enrichment, setEnrichment] = useState<EnrichmentProgress | null>(null);
+  const [uploadedDocumentId, setUploadedDocumentId] = useState<string | null>(null);
+  const [nearDuplicates, setNearDuplicates] = useState<NearDuplicate[]>([]);
+  const stopFollowingRef = useRef<(() => void) | null>(null);
   const [form] = Form.useForm();
   const navigate = useNavigate();
 
+  useEffect(() => () => stopFollowingRef.current?.(), []);
+
   const handleFileSelect = async (info: any) => {
     const file = info.file.originFileObj || info.file;
     
@@ -70,59 +77,29 @@ const UploadPage: React.FC = () => {
       }
 
       setSelectedFile(file);
-      
-      // Tự động xử lý AI khi chọn file
-      await processFileWithAI(file);
     }
   };
 
-  const processFileWithAI = async (file: File) => {
-    setIsProcessingAI(true);
-    setAiResult(null);
-    
-    try {
-      message.loading('Đang kiểm tra AI service...', 0);
-      
-      // Kiểm tra trạng thái AI service qua backend
-      const backendStatus = await aiApi.getBackendAIStatus();
-      
-      if (!backendStatus.available) {
-        message.destroy();
-        message.warning('AI service không khả dụng, bạn có thể nhập thông tin thủ công');
-        return;
-      }
-      
-      message.loading('Đang xử lý tài liệu với AI...', 0);
-      
-      const result = await aiApi.processFile(file);
-      
-      if (result.success) {
-        setAiResult(result);
-        
-        // Tự động điền thông tin từ AI
-        form.setFieldsValue({
-          description: result.summary,
-          tags: result.tags
-        });
-        
-        message.destroy();
-        message.success('AI đã tạo tóm tắt và tags cho tài liệu!');
-      } else {
-        message.destroy();
-        message.warning('Không thể xử lý tài liệu với AI, bạn có thể nhập thông tin thủ công');
+  // Theo dõi tiến trình AI qua SSE thay vì chờ (và retry) một request dài
+  const followEnrichment = (jobId: string) => {
+    stopFollowingRef.current = eventsApi.subscribeEnrichment(jobId, {
+      progress: (event: EnrichmentProgress) => {
+        setEnrichment(event);
+        if (event.stage === 'DONE' || event.stage === 'FAILED') {
+          stopFollowingRef.current?.();
+          stopFollowingRef.current = null;
+          if (event.stage === 'DONE') {
+            message.success('AI đã tạo tóm tắt và tags cho tài liệu!');
+          } else {
+            message.warning('AI không xử lý được tài liệu, tài liệu vẫn được lưu');
+          }
+        }
       }
-    } catch (error) {
-      console.error('AI processing error:', error);
-      message.destroy();
-      message.warning('AI service không khả dụng, bạn có thể nhập thông tin thủ công');
-    } finally {
-      setIsProcessingAI(false);
-    }
+    });
   };
 
   const removeFile = () => {
     setSelectedFile(null);
-    setAiResult(null);
     form.resetFields(['description', 'tags']);
   };
 
@@ -139,7 +116,7 @@ const UploadPage: React.FC = () => {
       const formData = new FormData();
       formData.append('file', selectedFile);
       formData.append('title', values.title);
-      formData.append('description', values.description);
+      formData.append('description', values.description || '');
       formData.append('visibility', values.visibility);
       
       if (values.tags && values.tags.length > 0) {
@@ -157,9 +134,26 @@ const UploadPage: React.FC = () => {
         });
       }, 200);
 
-      await documentApi.upload(formData);
+      const uploaded = await documentApi.upload(formData);
       
+      clearInterval(progressInterval);
       setUploadProgress(100);
+      
+      const duplicates = uploaded.nearDuplicates || [];
+      if (uploaded.enrichmentJobId || duplicates.length > 0) {
+        setUploadedDocumentId(uploaded.id);
+        setNearDuplicates(duplicates);
+        if (uploaded.enrichmentJobId) {
+          message.success('Upload tài liệu thành công! AI đang xử lý tài liệu...');
+          followEnrichment(uploaded.enrichmentJobId);
+        } else {
+          message.success('Upload tài liệu thành công!');
+        }
+        if (duplicates.length > 0) {
+          message.warning('Tài liệu này rất giống với tài liệu đã có trong hệ thống');
+        }
+        return;
+      }
       message.success('Upload tài liệu thành công!');
       
       setTimeout(() => {
@@ -275,78 +269,102 @@ const UploadPage: React.FC = () => {
             )}
           </Card>
 
-          {/* AI Processing Status */}
-          {isProcessingAI && (
-            <Card>
-              <div style={{ textAlign: 'center', padding: '20px' }}>
-                <RobotOutlined style={{ fontSize: '32px', color: '#1890ff', marginBottom: '16px' }} />
-                <div>
-                  <Text strong style={{ fontSize: '16px' }}>AI đang xử lý tài liệu...</Text>
-                  <br />
-                  <Text type="secondary">Đang tạo tóm tắt và gợi ý tags</Text>
-                </div>
-                <Progress 
-                  percent={50} 
-                  status="active"
-                  style={{ marginTop: '16px', maxWidth: '300px', margin: '16px auto 0' }}
-                />
-              </div>
-            </Card>
+          {/* Near-duplicate warning */}
+          {nearDuplicates.length > 0 && (
+            <Alert
+              type="warning"
+              showIcon
+              message="Có thể bạn vừa upload bản sao của tài liệu đã có"
+              description={
+                <Space direction="vertical">
+                  {nearDuplicates.map(duplicate => (
+                    <a key={duplicate.documentId} onClick={() => navigate(`/document/${duplicate.documentId}`)}>
+                      {duplicate.title}
+                      {duplicate.ownerName ? ` (${duplicate.ownerName})` : ''}
+                      {` - giống ${Math.round(duplicate.similarity * 100)}%`}
+                    </a>
+                  ))}
+                </Space>
+              }
+              action={
+                uploadedDocumentId && !enrichment && (
+                  <Button size="small" onClick={() => navigate(`/document/${uploadedDocumentId}`)}>
+                    Xem tài liệu
+                  </Button>
+                )
+              }
+            />
           )}
 
-          {/* AI Results */}
-          {aiResult && (
+          {/* AI Enrichment Progress */}
+          {enrichment && (
             <Card 
               title={
                 <Space>
-                  <RobotOutlined style={{ color: '#52c41a' }} />
-                  <span>Kết quả xử lý AI</span>
+                  <RobotOutlined style={{ color: enrichment.stage === 'DONE' ? '#52c41a' : '#1890ff' }} />
+                  <span>Xử lý AI</span>
                 </Space>
               }
               extra={
-                <Button 
-                  size="small" 
-                  icon={<ReloadOutlined />}
-                  onClick={() => selectedFile && processFileWithAI(selectedFile)}
-                  loading={isProcessingAI}
-                >
-                  Xử lý lại
-                </Button>
+                uploadedDocumentId && (
+                  <Button size="small" onClick={() => navigate(`/document/${uploadedDocumentId}`)}>
+                    Xem tài liệu
+                  </Button>
+                )
               }
-              style={{ border: '1px solid #52c41a' }}
+              style={{ border: `1px solid ${enrichment.stage === 'DONE' ? '#52c41a' : '#91d5ff'}` }}
             >
               <Space direction="vertical" style={{ width: '100%' }}>
-                <div>
-                  <Text strong>Ngôn ngữ phát hiện: </Text>
-                  <Text code>{aiResult.language === 'vi' ? 'Tiếng Việt' : 'English'}</Text>
-                </div>
-                <div>
-                  <Text strong>Tags được gợi ý: </Text>
-                  <Space wrap>
-                    {aiResult.tags.map((tag, index) => (
-                      <span key={index} style={{ 
-                        background: '#f0f0f0', 
-                        padding: '2px 8px', 
-                        borderRadius: '4px',
-                        fontSize: '12px'
-                      }}>
-                        {tag}
-                      </span>
-                    ))}
-                  </Space>
-                </div>
-                <div>
-                  <Text strong>Tóm tắt: </Text>
-                  <div style={{ 
-                    background: '#f6ffed', 
-                    padding: '12px', 
-                    borderRadius: '6px',
-                    border: '1px solid #b7eb8f',
-                    marginTop: '8px'
-                  }}>
-                    <Text>{aiResult.summary}</Text>
+                <Steps
+                  size="small"
+                  current={Math.max(0, ENRICHMENT_STEPS.indexOf(enrichment.stage === 'RETRYING' || enrichment.stage === 'FAILED' ? 'STORED' : enrichment.stage))}
+                  status={enrichment.stage === 'FAILED' ? 'error' : enrichment.stage === 'DONE' ? 'finish' : 'process'}
+                  items={ENRICHMENT_STEP_TITLES.map(title => ({ title }))}
+                />
+                {enrichment.stage === 'SUMMARIZING' && enrichment.totalChunks && enrichment.totalChunks > 1 && (
+                  <Progress 
+                    percent={Math.round(((enrichment.completedChunks || 0) / enrichment.totalChunks) * 100)}
+                    format={() => `${enrichment.completedChunks || 0}/${enrichment.totalChunks} phần`}
+                    status="active"
+                  />
+                )}
+                {enrichment.stage === 'RETRYING' && (
+                  <Alert type="warning" showIcon message="AI service đang bận, hệ thống sẽ tự thử lại" />
+                )}
+                {enrichment.stage === 'FAILED' && (
+                  <Alert type="error" showIcon message="AI không xử lý được tài liệu" description={enrichment.message} />
+                )}
+                {enrichment.tags && enrichment.tags.length > 0 && (
+                  <div>
+                    <Text strong>Tags được gợi ý: </Text>
+                    <Space wrap>
+                      {enrichment.tags.map((tag, index) => (
+                        <span key={index} style={{ 
+                          background: '#f0f0f0', 
+                          padding: '2px 8px', 
+                          borderRadius: '4px',
+                          fontSize: '12px'
+                        }}>
+                          {tag}
+                        </span>
+                      ))}
+                    </Space>
+                  </div>
+                )}
+                {enrichment.summary && (
+                  <div>
+                    <Text strong>Tóm tắt: </Text>
+                    <div style={{ 
+                      background: '#f6ffed', 
+                      padding: '12px', 
+                      borderRadius: '6px',
+                      border: '1px solid #b7eb8f',
+                      marginTop: '8px'
+                    }}>
+                      <Text>{enrichment.summary}</Text>
+                    </div>
                   </div>
-                </div>
+                )}
               </Space>
             </Card>
           )}
@@ -370,18 +388,9 @@ const UploadPage: React.FC = () => {
               <Col span={24}>
                 <Form.Item
                   name="description"
-                  label={
-                    <Space>
-                      <span>Mô tả</span>
-                      {aiResult && (
-                        <span style={{ color: '#52c41a', fontSize: '12px' }}>
-                          (Đã được AI tạo tự động)
-                        </span>
-                      )}
-                    </Space>
-                  }
+                  label="Mô tả"
+                  tooltip="Để trống để AI tự tạo mô tả sau khi upload"
                   rules={[
-                    { required: true, message: 'Vui lòng nhập mô tả!' },
                     { min: 10, message: 'Mô tả phải có ít nhất 10 ký tự!' }
                   ]}
                 >
@@ -397,17 +406,8 @@ const UploadPage: React.FC = () => {
               <Col span={24}>
                 <Form.Item
                   name="tags"
-                  label={
-                    <Space>
-                      <span>Tags</span>
-                      {aiResult && (
-                        <span style={{ color: '#52c41a', fontSize: '12px' }}>
-                          (Đã được AI gợi ý)
-                        </span>
-                      )}
-                    </Space>
-                  }
-                  tooltip="Nhập tags cách nhau bởi dấu phẩy để giúp tài liệu dễ tìm kiếm hơn"
+                  label="Tags"
+                  tooltip="Nhập tags cách nhau bởi dấu phẩy để giúp tài liệu dễ tìm kiếm hơn; để trống để AI gợi ý"
                 >
                   <Select
                     mode="tags"
@@ -487,14 +487,14 @@ const UploadPage: React.FC = () => {
                 size="large" 
                 block
                 htmlType="submit"
-                loading={isUploading || isProcessingAI}
-                disabled={!selectedFile || isProcessingAI}
+                loading={isUploading}
+                disabled={!selectedFile || uploadedDocumentId !== null}
                 style={{
                   background: 'linear-gradient(135deg, #667eea 0%, #764ba2 100%)',
                   border: 'none'
                 }}
               >
-                {isProcessingAI ? 'Đang xử lý AI...' : isUploading ? 'Đang upload...' : 'Upload tài liệu'}
+                {isUploading ? 'Đang upload...' : uploadedDocumentId ? 'Đã upload' : 'Upload tài liệu'}
               </Button>
             </Col>
           </Row>
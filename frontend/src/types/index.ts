@@ -44,10 +44,66 @@ export interface DocumentDto {
   viewCount: number;
   averageRating: number;
   totalRatings: number;
+  commentCount: number;
+  enrichmentStatus?: 'NONE' | 'PENDING' | 'COMPLETED' | 'FAILED';
   createdAt: string;
   updatedAt: string;
 }
 
+// Response of POST /documents/upload; enrichmentJobId is set when AI processing was queued
+export interface UploadResponse extends DocumentDto {
+  enrichmentJobId?: string;
+  nearDuplicates?: NearDuplicate[];
+}
+
+// Existing document an upload closely resembles; similarity is between 0 and 1
+export interface NearDuplicate {
+  documentId: string;
+  title: string;
+  ownerName?: string;
+  similarity: number;
+}
+
+// Result of POST /documents/bulk, one entry per file in the archive
+export interface BulkUploadResponse {
+  totalFiles: number;
+  stored: number;
+  rejected: number;
+  failed: number;
+  truncated: boolean;
+  message?: string;
+  enrichmentQueued: boolean;
+  files: BulkUploadFileResult[];
+}
+
+export interface BulkUploadFileResult {
+  path: string;
+  status: 'STORED' | 'REJECTED' | 'FAILED';
+  documentId?: string;
+  error?: string;
+  nearDuplicateIds?: string[];
+}
+
+// "progress" events streamed from /events/enrichment/{jobId}
+export interface EnrichmentProgress {
+  jobId: string;
+  documentId: string;
+  stage: 'STORED' | 'EXTRACTING' | 'SUMMARIZING' | 'TAGGING' | 'DONE' | 'RETRYING' | 'FAILED';
+  completedChunks?: number;
+  totalChunks?: number;
+  summary?: string;
+  tags?: string[];
+  message?: string;
+}
+
+// Composite payload of GET /documents/{id}/detail
+export interface DocumentDetailResponse {
+  document: DocumentDto;
+  comments: { content: Comment[] };
+  ratingStats: { averageRating: number; totalRatings: number };
+  userRating: { hasRating: boolean; score?: number };
+}
+
 // Comment types
 export interface Comment {
   id: string;
@@ -59,6 +115,29 @@ export interface Comment {
   updatedAt: string;
 }
 
+// Events pushed on /events/feed and /events/documents/{id}
+export interface DocumentEvent {
+  documentId: string;
+  type: 'CREATED' | 'UPDATED' | 'DELETED';
+}
+
+export interface CommentEvent {
+  type: 'ADDED' | 'UPDATED' | 'DELETED';
+  id: string;
+  documentId: string;
+  content: string;
+  authorName: string;
+  authorId: string;
+  createdAt: string;
+  updatedAt: string;
+}
+
+export interface RatingEvent {
+  documentId: string;
+  averageRating: number;
+  totalRatings: number;
+}
+
 // Rating types
 export interface Rating {
   id: string;
@@ -132,7 +211,7 @@ export interface HomeData {
 // Form types
 export interface DocumentFormData {
   title: string;
-  description: string;
+  description?: string;
   tags: string[];
   visibility: 'PRIVATE' | 'GROUP' | 'PUBLIC';
 }